@@ -0,0 +1,88 @@
+package org.honton.chas.podman.maven.plugin;
+
+import com.fasterxml.jackson.jr.ob.JSON;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compare JMH json results against a baseline. A benchmark is flagged when it is slower than the
+ * baseline by more than the tolerance and by more than the combined error of both measurements. One
+ * as much faster is flagged too, since its stale baseline would hide a later regression.
+ *
+ * <p>Arguments: baseline.json result.json [tolerance percent, default 10]
+ */
+public class BenchmarkComparison {
+
+  private static final String ROW = "%-70s %12s %12s %8s %s%n";
+
+  public static void main(String[] args) throws IOException {
+    Map<String, Map<String, Object>> baseline = read(Path.of(args[0]));
+    Map<String, Map<String, Object>> current = read(Path.of(args[1]));
+    double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+
+    int regressions = 0;
+    int improvements = 0;
+    System.out.printf(ROW, "benchmark", "baseline", "current", "change", "");
+    for (Map.Entry<String, Map<String, Object>> entry : current.entrySet()) {
+      Map<String, Object> metric = entry.getValue();
+      double score = number(metric.get("score"));
+      String unit = (String) metric.get("scoreUnit");
+      Map<String, Object> prior = baseline.get(entry.getKey());
+      if (prior == null) {
+        System.out.printf(ROW, entry.getKey(), "-", format(score, unit), "", "new");
+        continue;
+      }
+      double base = number(prior.get("score"));
+      double change = (score - base) / base * 100;
+      // average time: higher is slower
+      double error = number(prior.get("scoreError")) + number(metric.get("scoreError"));
+      boolean slower = change > tolerance && score - base > error;
+      boolean faster = -change > tolerance && base - score > error;
+      if (slower) {
+        ++regressions;
+      } else if (faster) {
+        ++improvements;
+      }
+      System.out.printf(
+          ROW,
+          entry.getKey(),
+          format(base, unit),
+          format(score, unit),
+          String.format("%+.1f%%", change),
+          slower ? "REGRESSION" : faster ? "IMPROVED" : "");
+    }
+    System.out.println(regressions + " regressions beyond " + tolerance + "%");
+    if (improvements > 0) {
+      // a stale baseline hides regressions of up to the improvement
+      System.out.println(improvements + " improvements beyond " + tolerance + "%; update baseline");
+    }
+  }
+
+  /** Read the primary metric of each benchmark, keyed by benchmark name and parameters */
+  @SuppressWarnings("unchecked")
+  private static Map<String, Map<String, Object>> read(Path file) throws IOException {
+    Map<String, Map<String, Object>> metrics = new LinkedHashMap<>();
+    for (Object result : JSON.std.listFrom(Files.readString(file))) {
+      Map<String, Object> run = (Map<String, Object>) result;
+      String name = ((String) run.get("benchmark")).replaceFirst("^.*\\.(\\w+\\.\\w+)$", "$1");
+      Object params = run.get("params");
+      if (params instanceof Map) {
+        name += new TreeMap<>((Map<String, Object>) params);
+      }
+      metrics.put(name, (Map<String, Object>) run.get("primaryMetric"));
+    }
+    return metrics;
+  }
+
+  private static double number(Object value) {
+    return value instanceof Number ? ((Number) value).doubleValue() : 0;
+  }
+
+  private static String format(double score, String unit) {
+    return String.format("%.3f %s", score, unit.replace("/op", ""));
+  }
+}
@@ -0,0 +1,69 @@
+package org.honton.chas.podman.maven.plugin;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Reading and classifying podman stderr, one call per 10,000 lines */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PumpLogBenchmark {
+
+  private static final int LINES = 10_000;
+
+  private PodmanGoal goal;
+  private byte[] stderr;
+
+  @Setup
+  public void setup() {
+    goal =
+        new PodmanGoal() {
+          @Override
+          protected void doExecute() {}
+        };
+    goal.setLog(new NullLog());
+
+    String[] samples = {
+      "Getting image source signatures",
+      "Copying blob sha256:2d473b07cdd5f0912cd6f1a703352c82b512407db6b05b43f2553732b55df3bc",
+      "WARNING: image platform (linux/amd64) does not match the expected platform (linux/arm64)",
+      "[warning] the container was not stopped in time",
+      "Error: no container with name or ID \"db\" found: no such container",
+      "Writing manifest to image destination",
+    };
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < LINES; ++i) {
+      sb.append(samples[i % samples.length]).append('\n');
+    }
+    stderr = sb.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public int pumpErrorLines() {
+    ErrorOutput errorOutput = new ErrorOutput(goal.errorTail);
+    goal.pumpLog(
+        new ByteArrayInputStream(stderr), PodmanGoal.retaining(errorOutput, goal::errorLine));
+    return errorOutput.length();
+  }
+
+  @Benchmark
+  public int pumpDiscardedLines() {
+    int[] count = new int[1];
+    goal.pumpLog(new ByteArrayInputStream(stderr), line -> ++count[0]);
+    return count[0];
+  }
+}
@@ -0,0 +1,80 @@
+package org.honton.chas.podman.maven.plugin.container;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.project.MavenProject;
+import org.honton.chas.podman.maven.plugin.NullLog;
+import org.honton.chas.podman.maven.plugin.build.PodmanBuild;
+import org.honton.chas.podman.maven.plugin.cmdline.BuildCommandLine;
+import org.honton.chas.podman.maven.plugin.config.ContainerConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Construction of the build and container run command lines */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandLineBenchmark {
+
+  private final PodmanBuild buildGoal = new PodmanBuild();
+  private final PodmanContainerRun runGoal = new PodmanContainerRun();
+  private final ContainerConfig containerConfig = new ContainerConfig();
+  private final Map<String, String> buildArguments =
+      Map.of("VERSION", "1.2.3", "JAR", "app.jar", "BASE", "eclipse-temurin:21-jre");
+  private final Path contextDir = Path.of("target", "contextDir");
+
+  @Setup
+  public void setup() {
+    buildGoal.setLog(new NullLog());
+    runGoal.setLog(new NullLog());
+    runGoal.project = new MavenProject();
+    // fixed host ports, as when ports are assigned by the build
+    runGoal.project.getProperties().setProperty("http.port", "8080");
+    runGoal.project.getProperties().setProperty("dns.port", "127.0.0.1:5353");
+
+    containerConfig.alias = "app";
+    containerConfig.name = "network.app";
+    containerConfig.image = "registry.example.com/app:1.2.3";
+    containerConfig.args = List.of("--server.port=8080", "--spring.profiles.active=it");
+    containerConfig.env = Map.of("JAVA_OPTS", "-Xmx512m", "DB_URL", "jdbc:postgresql://db/app");
+    containerConfig.ports = Map.of("http.port", "8080", "dns.port", "53/udp");
+    containerConfig.memory = "1g";
+  }
+
+  @Benchmark
+  public List<String> buildCommandLine() {
+    return new BuildCommandLine(buildGoal)
+        .addArgs(buildArguments)
+        .addPlatformAndImage(List.of("linux/amd64,linux/arm64"), "app:1.2.3")
+        .addLabel("org.honton.chas.podman.container-fingerprint", "0123456789abcdef")
+        .addContainerfile("Containerfile")
+        .addContext(contextDir)
+        .getCommand();
+  }
+
+  @Benchmark
+  public List<String> containerRunCommandLine() throws MojoExecutionException {
+    return new ContainerRunCommandLine(runGoal, containerConfig)
+        .addContainerName()
+        .addContainerOptions("network")
+        .addEnvironment(warning -> {})
+        .addDevices(null)
+        .addPorts()
+        .addContainerCmd()
+        .getCommand();
+  }
+}
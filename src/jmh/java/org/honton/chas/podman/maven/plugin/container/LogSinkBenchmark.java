@@ -0,0 +1,85 @@
+package org.honton.chas.podman.maven.plugin.container;
+
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.honton.chas.podman.maven.plugin.config.WaitConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The per-line path of a followed container log: the wait matcher, and the sink which queues lines
+ * to the log file writer. One call per 10,000 lines.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LogSinkBenchmark {
+
+  private static final int LINES = 10_000;
+
+  private final String[] lines = new String[LINES];
+  private WaitConfig waitConfig;
+  private ExecutorService executor;
+
+  @Setup
+  public void setup() {
+    for (int i = 0; i < LINES; ++i) {
+      lines[i] =
+          "2024-01-15T10:15:30.123Z INFO [main] o.s.b.w.e.tomcat.TomcatWebServer : request "
+              + i
+              + " completed in "
+              + (i % 97)
+              + " ms";
+    }
+
+    waitConfig = new WaitConfig();
+    // never seen, so every line is examined for every condition
+    waitConfig.logs = List.of("Started Application in", "Tomcat started on port");
+    waitConfig.logPatterns = List.of("Listening on port \\d+");
+    waitConfig.failures = List.of("APPLICATION FAILED TO START", "OutOfMemoryError");
+    waitConfig.failurePatterns = List.of("Exception in thread \"\\w+\"");
+
+    executor = Executors.newSingleThreadExecutor();
+  }
+
+  @TearDown
+  public void tearDown() {
+    executor.shutdown();
+  }
+
+  @Benchmark
+  public boolean matchLines() {
+    LogMatcher matcher = LogMatcher.of(waitConfig);
+    for (String line : lines) {
+      matcher.accept(line);
+    }
+    return matcher.getFailure() == null;
+  }
+
+  @Benchmark
+  public boolean sinkAndMatchLines() {
+    LogMatcher matcher = LogMatcher.of(waitConfig);
+    LogSink sink = new LogSink(Writer.nullWriter(), matcher, metrics -> {}, executor);
+    for (String line : lines) {
+      sink.accept(line);
+    }
+    // waits for the writer task to drain the queue
+    sink.close();
+    return matcher.getFailure() == null;
+  }
+}
@@ -0,0 +1,63 @@
+package org.honton.chas.podman.maven.plugin.container;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.honton.chas.podman.maven.plugin.NullLog;
+import org.honton.chas.podman.maven.plugin.config.ContainerConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Ordering a requirement graph into start levels */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderBenchmark {
+
+  @Param({"10", "100", "1000"})
+  public int containers;
+
+  private final NullLog log = new NullLog();
+  private Map<String, ContainerConfig> configs;
+
+  /** Each container requires up to three randomly chosen earlier containers */
+  @Setup
+  public void setup() {
+    Random random = new Random(containers);
+    configs = new LinkedHashMap<>();
+    for (int i = 0; i < containers; ++i) {
+      ContainerConfig config = new ContainerConfig();
+      config.image = "image" + i;
+      if (i > 0) {
+        StringJoiner requires = new StringJoiner(",");
+        int count = 1 + random.nextInt(Math.min(i, 3));
+        for (int j = 0; j < count; ++j) {
+          requires.add("c" + random.nextInt(i));
+        }
+        config.requires = requires.toString();
+      }
+      configs.put("c" + i, config);
+    }
+  }
+
+  @Benchmark
+  public List<List<ContainerConfig>> order() throws MojoExecutionException {
+    return ContainerConfigHelper.order("network", configs, log);
+  }
+}
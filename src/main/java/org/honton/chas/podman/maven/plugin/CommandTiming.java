@@ -0,0 +1,281 @@
+package org.honton.chas.podman.maven.plugin;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Duration, exit code, and output volume of one command invocation. The timing is complete once the
+ * process has exited and both of its output streams have been closed. A libpod request is timed the
+ * same way: its response body is the standard output, and it exits when the body is closed.
+ */
+final class CommandTiming {
+
+  // subcommands which group further subcommands, e.g. `container run`
+  private static final Set<String> GROUPS =
+      Set.of("container", "image", "manifest", "network", "pod", "system", "volume");
+
+  // request path segments which follow the resource type and are not a name or id
+  private static final Set<String> ACTIONS = Set.of("create", "json", "pull");
+
+  // global options which take a value
+  private static final Set<String> VALUED_OPTIONS = Set.of("--url", "--connection");
+
+  final SessionMetrics.GoalTiming goal;
+  final String subject;
+  final String subcommand;
+  final Instant start;
+  final String spanId;
+  final boolean background;
+
+  private final long startNanos = System.nanoTime();
+  private final CountingInputStream stdout;
+  private final CountingInputStream stderr;
+  private final CompletableFuture<Integer> exit = new CompletableFuture<>();
+  private final CompletableFuture<CommandTiming> completion;
+
+  private volatile long durationNanos;
+
+  /**
+   * Start timing an invocation
+   *
+   * @param goal The goal execution which invoked the command
+   * @param subject The container alias or other subject of the command, may be null
+   * @param command The command and parameters
+   * @param process The started process
+   * @param background True if the goal does not wait for the process to exit
+   */
+  CommandTiming(
+      SessionMetrics.GoalTiming goal,
+      String subject,
+      List<String> command,
+      Process process,
+      boolean background) {
+    this(
+        goal,
+        subject,
+        subcommand(command),
+        process.getInputStream(),
+        process.getErrorStream(),
+        background);
+    process.onExit().thenAccept(p -> exited(p.exitValue()));
+  }
+
+  /**
+   * Start timing a libpod request. The request completes with {@link #response} or {@link #failed}.
+   *
+   * @param goal The goal execution which sent the request
+   * @param subject The container alias or other subject of the request, may be null
+   * @param method The http method
+   * @param path The request path and query
+   * @param background True if the goal does not wait for the response to be consumed
+   */
+  CommandTiming(
+      SessionMetrics.GoalTiming goal,
+      String subject,
+      String method,
+      String path,
+      boolean background) {
+    this(
+        goal,
+        subject,
+        request(method, path),
+        InputStream.nullInputStream(),
+        InputStream.nullInputStream(),
+        background);
+    stderr.closed.complete(null);
+  }
+
+  private CommandTiming(
+      SessionMetrics.GoalTiming goal,
+      String subject,
+      String subcommand,
+      InputStream stdout,
+      InputStream stderr,
+      boolean background) {
+    this.goal = goal;
+    this.subject = subject;
+    this.subcommand = subcommand;
+    this.start = Instant.now();
+    this.spanId = SessionMetrics.randomHex(8);
+    this.background = background;
+    this.stdout = new CountingInputStream(stdout);
+    this.stderr = new CountingInputStream(stderr);
+    completion =
+        CompletableFuture.allOf(exit, this.stdout.closed, this.stderr.closed).thenApply(v -> this);
+  }
+
+  /** The standard output of the process, counting bytes read */
+  InputStream getInputStream() {
+    return stdout;
+  }
+
+  /** The standard error of the process, counting bytes read */
+  InputStream getErrorStream() {
+    return stderr;
+  }
+
+  /** Completes once the standard error of the process has been consumed and closed */
+  CompletableFuture<Void> errorClosed() {
+    return stderr.closed;
+  }
+
+  /** Mark the standard output as consumed elsewhere, as by the next process of a pipeline */
+  void stdoutNotRead() {
+    stdout.closed.complete(null);
+  }
+
+  /**
+   * Record the exit of the process. Only the first call has effect.
+   *
+   * @param exitCode The exit value of the process
+   */
+  void exited(int exitCode) {
+    if (!exit.isDone()) {
+      durationNanos = System.nanoTime() - startNanos;
+      exit.complete(exitCode);
+    }
+  }
+
+  /**
+   * Record the response of a libpod request. The request exits when the body is closed, with 0 for
+   * a 2xx status and the http status otherwise.
+   *
+   * @param status The http status
+   * @param body The response body
+   * @return The response body, counting bytes read
+   */
+  InputStream response(int status, InputStream body) {
+    stdout.readFrom(body);
+    stdout.closed.thenRun(() -> exited(status / 100 == 2 ? 0 : status));
+    return stdout;
+  }
+
+  /** Record a libpod request which failed without a response */
+  void failed() {
+    exited(1);
+    stdout.closed.complete(null);
+  }
+
+  /** Completes with this timing once the process has exited and its output is consumed */
+  CompletableFuture<CommandTiming> completion() {
+    return completion;
+  }
+
+  long getDurationNanos() {
+    return durationNanos;
+  }
+
+  int getExitCode() {
+    return exit.join();
+  }
+
+  long getStdoutBytes() {
+    return stdout.count;
+  }
+
+  long getStderrBytes() {
+    return stderr.count;
+  }
+
+  /**
+   * Name the subcommand of a command line, e.g. `build`, `container run`, or `docker load`
+   *
+   * @param command The command and parameters
+   */
+  static String subcommand(List<String> command) {
+    StringBuilder sb = new StringBuilder();
+    String executable = command.get(0);
+    int slash = Math.max(executable.lastIndexOf('/'), executable.lastIndexOf('\\'));
+    executable = executable.substring(slash + 1);
+    if (!executable.equals("podman")) {
+      sb.append(executable);
+    }
+    for (int i = 1; i < command.size(); ++i) {
+      String word = command.get(i);
+      if (word.startsWith("-")) {
+        if (VALUED_OPTIONS.contains(word)) {
+          ++i;
+        }
+        continue;
+      }
+      if (sb.length() > 0) {
+        sb.append(' ');
+      }
+      sb.append(word);
+      if (!GROUPS.contains(word)) {
+        break;
+      }
+    }
+    return sb.length() > 0 ? sb.toString() : executable;
+  }
+
+  /**
+   * Name a libpod request by method and path, with names and ids replaced, e.g. `POST
+   * /containers/{id}/start`
+   *
+   * @param method The http method
+   * @param path The request path and query, with or without the api version prefix
+   */
+  static String request(String method, String path) {
+    int query = path.indexOf('?');
+    if (query >= 0) {
+      path = path.substring(0, query);
+    }
+    int api = path.indexOf("/libpod/");
+    if (api >= 0) {
+      path = path.substring(api + "/libpod".length());
+    }
+    String[] segments = path.split("/");
+    // segments[0] is empty; segments[1] is the resource type; segments[2] is an id or an action
+    if (segments.length > 2 && (segments.length > 3 || !ACTIONS.contains(segments[2]))) {
+      segments[2] = "{id}";
+    }
+    return method + ' ' + String.join("/", segments);
+  }
+
+  /** Count bytes read, and note when the stream is closed */
+  private static class CountingInputStream extends FilterInputStream {
+    private final CompletableFuture<Void> closed = new CompletableFuture<>();
+    private long count;
+
+    CountingInputStream(InputStream in) {
+      super(in);
+    }
+
+    void readFrom(InputStream in) {
+      this.in = in;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b >= 0) {
+        ++count;
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int read = super.read(b, off, len);
+      if (read > 0) {
+        count += read;
+      }
+      return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        super.close();
+      } finally {
+        closed.complete(null);
+      }
+    }
+  }
+}
@@ -0,0 +1,178 @@
+package org.honton.chas.podman.maven.plugin;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/** SHA-256 hashing of values and files, shared by the fingerprints and manifests of the goals. */
+public final class Digests {
+
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private Digests() {}
+
+  /** A computation on a file of a directory tree */
+  @FunctionalInterface
+  public interface FileFunction<V> {
+    /**
+     * Compute the value for a file
+     *
+     * @param name The path of the file relative to the root of the tree, with '/' separators
+     * @param file The file
+     */
+    V apply(String name, Path file) throws IOException;
+  }
+
+  /** Combine values into a single SHA-256 digest. Each value is followed by a null separator. */
+  public static final class Combiner {
+
+    private final MessageDigest combined = sha256();
+
+    /**
+     * Add a map of values, in key order
+     *
+     * @param values The values, may be null
+     * @return this
+     */
+    public Combiner add(Map<String, String> values) {
+      if (values != null) {
+        new TreeMap<>(values)
+            .forEach(
+                (k, v) -> {
+                  add(k);
+                  add(v);
+                });
+      }
+      return add("");
+    }
+
+    /**
+     * Add a list of values
+     *
+     * @param values The values, may be null
+     * @return this
+     */
+    public Combiner add(List<String> values) {
+      if (values != null) {
+        values.forEach(this::add);
+      }
+      return add("");
+    }
+
+    /**
+     * Add a value
+     *
+     * @param value The value, may be null
+     * @return this
+     */
+    public Combiner add(String value) {
+      if (value != null) {
+        combined.update(value.getBytes(StandardCharsets.UTF_8));
+      }
+      // separator prevents ambiguity between adjacent values
+      combined.update((byte) 0);
+      return this;
+    }
+
+    /**
+     * Add content without a separator
+     *
+     * @param content The content
+     * @return this
+     */
+    public Combiner addContent(byte[] content) {
+      combined.update(content);
+      return this;
+    }
+
+    /** The hex encoded digest of all added values */
+    public String digest() {
+      return toHex(combined.digest());
+    }
+  }
+
+  /** A new SHA-256 message digest */
+  public static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Lower case hex encoding
+   *
+   * @param bytes The bytes to encode
+   */
+  public static String toHex(byte[] bytes) {
+    char[] chars = new char[bytes.length * 2];
+    for (int i = 0; i < bytes.length; ++i) {
+      chars[i * 2] = HEX[(bytes[i] >> 4) & 0xf];
+      chars[i * 2 + 1] = HEX[bytes[i] & 0xf];
+    }
+    return new String(chars);
+  }
+
+  /**
+   * The hex encoded SHA-256 hash of the content of a file
+   *
+   * @param file The file to hash
+   */
+  public static String hash(Path file) throws IOException {
+    MessageDigest digest = sha256();
+    byte[] buffer = new byte[BUFFER_SIZE];
+    try (InputStream is = Files.newInputStream(file)) {
+      for (int read; (read = is.read(buffer)) >= 0; ) {
+        digest.update(buffer, 0, read);
+      }
+    }
+    return toHex(digest.digest());
+  }
+
+  /**
+   * Apply a function to files in parallel, collecting the results by relative name
+   *
+   * @param root The root of the directory tree
+   * @param files The files, each within root
+   * @param function The computation on each file
+   * @return The results, in name order
+   */
+  public static <V> SortedMap<String, V> mapFiles(
+      Path root, List<Path> files, FileFunction<V> function) throws IOException {
+    try {
+      return files.parallelStream()
+          .collect(
+              Collectors.toMap(
+                  file -> name(root, file),
+                  file -> apply(root, file, function),
+                  (a, b) -> a,
+                  TreeMap::new));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private static <V> V apply(Path root, Path file, FileFunction<V> function) {
+    try {
+      return function.apply(name(root, file), file);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static String name(Path root, Path file) {
+    return root.relativize(file).toString().replace('\\', '/');
+  }
+}
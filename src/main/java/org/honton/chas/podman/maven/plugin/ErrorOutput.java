@@ -0,0 +1,95 @@
+package org.honton.chas.podman.maven.plugin;
+
+/**
+ * The most recent standard error of a command, one line per newline. Once the capacity is reached,
+ * the oldest characters are overwritten, so a command writing megabytes of progress retains only
+ * its tail.
+ */
+final class ErrorOutput {
+
+  private static final int INITIAL_SIZE = 256;
+
+  private final int capacity;
+  private char[] buffer;
+  private int end; // index of the next character to write
+  private int length;
+
+  /**
+   * Create an empty tail
+   *
+   * @param capacity The maximum number of characters retained
+   */
+  ErrorOutput(int capacity) {
+    this.capacity = Math.max(0, capacity);
+    buffer = new char[Math.min(this.capacity, INITIAL_SIZE)];
+  }
+
+  /**
+   * Append a line, overwriting the oldest characters once full
+   *
+   * @param line The line, without line terminator
+   */
+  synchronized void appendLine(String line) {
+    if (capacity == 0) {
+      return;
+    }
+    int lineLength = line.length();
+    ensureCapacity(length + lineLength + 1);
+    if (lineLength >= capacity) {
+      // only the end of the line survives
+      line.getChars(lineLength - capacity + 1, lineLength, buffer, 0);
+      buffer[capacity - 1] = '\n';
+      end = 0;
+      length = capacity;
+      return;
+    }
+    int first = Math.min(lineLength, buffer.length - end);
+    line.getChars(0, first, buffer, end);
+    line.getChars(first, lineLength, buffer, 0);
+    end = (end + lineLength) % buffer.length;
+    buffer[end] = '\n';
+    end = (end + 1) % buffer.length;
+    length = Math.min(capacity, length + lineLength + 1);
+  }
+
+  /** Grow the buffer while it has not yet wrapped */
+  private void ensureCapacity(int needed) {
+    if (needed <= buffer.length || buffer.length == capacity) {
+      return;
+    }
+    int size = buffer.length;
+    while (size < needed && size < capacity) {
+      size = (int) Math.min(capacity, size * 2L);
+    }
+    char[] grown = new char[size];
+    System.arraycopy(buffer, 0, grown, 0, length);
+    buffer = grown;
+    end = length;
+  }
+
+  /**
+   * Check whether the retained output contains text
+   *
+   * @param text The text to find
+   */
+  boolean contains(CharSequence text) {
+    return toString().contains(text);
+  }
+
+  synchronized int length() {
+    return length;
+  }
+
+  @Override
+  public synchronized String toString() {
+    int start = end - length;
+    if (start >= 0) {
+      return new String(buffer, start, length);
+    }
+    start += buffer.length;
+    return new StringBuilder(length)
+        .append(buffer, start, buffer.length - start)
+        .append(buffer, 0, end)
+        .toString();
+  }
+}
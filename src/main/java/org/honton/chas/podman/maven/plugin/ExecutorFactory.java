@@ -0,0 +1,62 @@
+package org.honton.chas.podman.maven.plugin;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Create the executors for concurrent goal actions and for process stream pumps. A multi-release
+ * jar replaces this class on Java 21 and later with one which uses virtual threads.
+ */
+final class ExecutorFactory {
+
+  /** Maximum number of threads running goal actions */
+  static final int MAX_POOLED = Math.max(16, 4 * Runtime.getRuntime().availableProcessors());
+
+  private ExecutorFactory() {}
+
+  /**
+   * Create the executor of goal actions, such as starting a container. At most MAX_POOLED actions
+   * run at once; further actions wait in a queue.
+   */
+  static ExecutorService createTaskExecutor() {
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            MAX_POOLED,
+            MAX_POOLED,
+            10,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            threadFactory("podman-"));
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  /**
+   * Create the executor of tasks which block for the life of a process or container, such as output
+   * pumps, log followers, and log writers. Queueing such a task behind others could deadlock, so
+   * each runs on its own pooled thread; there are at most a few per running process.
+   */
+  static ExecutorService createStreamExecutor() {
+    return new ThreadPoolExecutor(
+        0,
+        Integer.MAX_VALUE,
+        10,
+        TimeUnit.SECONDS,
+        new SynchronousQueue<>(),
+        threadFactory("podman-stream-"));
+  }
+
+  private static ThreadFactory threadFactory(String prefix) {
+    AtomicInteger number = new AtomicInteger();
+    return task -> {
+      Thread thread = new Thread(task, prefix + number.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+}
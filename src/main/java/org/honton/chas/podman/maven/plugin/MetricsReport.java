@@ -0,0 +1,180 @@
+package org.honton.chas.podman.maven.plugin;
+
+import com.fasterxml.jackson.jr.ob.JSON;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/** Formats command timings as a log table, a json report, and OpenTelemetry spans */
+final class MetricsReport {
+
+  private static final String ROW = "%-24s %5s %9s %7s %7s %7s %7s";
+
+  private MetricsReport() {}
+
+  /**
+   * Summarize the durations of each subcommand
+   *
+   * @param commands The completed command timings
+   * @return The lines of a table with count, total, and percentile milliseconds per subcommand
+   */
+  static List<String> summarize(Collection<CommandTiming> commands) {
+    Map<String, List<Long>> bySubcommand = new TreeMap<>();
+    for (CommandTiming command : commands) {
+      bySubcommand
+          .computeIfAbsent(command.subcommand, k -> new ArrayList<>())
+          .add(millis(command.getDurationNanos()));
+    }
+
+    List<String> lines = new ArrayList<>();
+    lines.add(
+        String.format(ROW, "podman command", "count", "total ms", "p50", "p90", "p99", "max"));
+    bySubcommand.forEach(
+        (subcommand, durations) -> {
+          long[] sorted = durations.stream().mapToLong(Long::longValue).sorted().toArray();
+          lines.add(
+              String.format(
+                  ROW,
+                  subcommand,
+                  sorted.length,
+                  Arrays.stream(sorted).sum(),
+                  percentile(sorted, 50),
+                  percentile(sorted, 90),
+                  percentile(sorted, 99),
+                  sorted[sorted.length - 1]));
+        });
+    return lines;
+  }
+
+  /**
+   * The nearest-rank percentile
+   *
+   * @param sorted The values, in ascending order
+   * @param percent The percentile, 1 to 100
+   */
+  static long percentile(long[] sorted, int percent) {
+    int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+    return sorted[Math.max(0, rank - 1)];
+  }
+
+  /**
+   * Render command timings as json
+   *
+   * @param commands The completed command timings
+   */
+  static String toJson(List<CommandTiming> commands) throws IOException {
+    List<Map<String, Object>> records = new ArrayList<>();
+    for (CommandTiming command : commands) {
+      Map<String, Object> record = new LinkedHashMap<>();
+      record.put("goal", command.goal.goal);
+      if (command.subject != null) {
+        record.put("container", command.subject);
+      }
+      record.put("subcommand", command.subcommand);
+      record.put("start", command.start.toString());
+      record.put("durationMs", millis(command.getDurationNanos()));
+      record.put("exitCode", command.getExitCode());
+      record.put("stdoutBytes", command.getStdoutBytes());
+      record.put("stderrBytes", command.getStderrBytes());
+      record.put("background", command.background);
+      records.add(record);
+    }
+    return JSON.std.with(JSON.Feature.PRETTY_PRINT_OUTPUT).asString(Map.of("commands", records));
+  }
+
+  /**
+   * Render goal and command timings as OTLP/JSON spans; each command is a child of its goal
+   *
+   * @param traceId The trace id of the session
+   * @param goals The goal timings
+   * @param commands The completed command timings
+   */
+  static String toSpans(
+      String traceId, List<SessionMetrics.GoalTiming> goals, List<CommandTiming> commands)
+      throws IOException {
+    List<Map<String, Object>> spans = new ArrayList<>();
+    for (SessionMetrics.GoalTiming goal : goals) {
+      Map<String, Object> span =
+          span(
+              traceId,
+              goal.spanId,
+              "podman:" + goal.goal,
+              goal.start,
+              goal.getDurationNanos(),
+              goal.isFailed());
+      span.put("attributes", List.of(attribute("podman.goal", goal.goal)));
+      spans.add(span);
+    }
+    for (CommandTiming command : commands) {
+      Map<String, Object> span =
+          span(
+              traceId,
+              command.spanId,
+              "podman " + command.subcommand,
+              command.start,
+              command.getDurationNanos(),
+              command.getExitCode() != 0);
+      span.put("parentSpanId", command.goal.spanId);
+      List<Map<String, Object>> attributes = new ArrayList<>();
+      attributes.add(attribute("podman.goal", command.goal.goal));
+      if (command.subject != null) {
+        attributes.add(attribute("podman.container", command.subject));
+      }
+      attributes.add(attribute("podman.subcommand", command.subcommand));
+      attributes.add(attribute("process.exit.code", command.getExitCode()));
+      attributes.add(attribute("podman.stdout.bytes", command.getStdoutBytes()));
+      attributes.add(attribute("podman.stderr.bytes", command.getStderrBytes()));
+      span.put("attributes", attributes);
+      spans.add(span);
+    }
+
+    Map<String, Object> resource =
+        Map.of("attributes", List.of(attribute("service.name", "podman-maven-plugin")));
+    Map<String, Object> scopeSpans =
+        Map.of("scope", Map.of("name", "org.honton.chas.podman"), "spans", spans);
+    Map<String, Object> resourceSpans =
+        Map.of("resource", resource, "scopeSpans", List.of(scopeSpans));
+    return JSON.std
+        .with(JSON.Feature.PRETTY_PRINT_OUTPUT)
+        .asString(Map.of("resourceSpans", List.of(resourceSpans)));
+  }
+
+  private static Map<String, Object> span(
+      String traceId,
+      String spanId,
+      String name,
+      Instant start,
+      long durationNanos,
+      boolean failed) {
+    long startNanos = TimeUnit.SECONDS.toNanos(start.getEpochSecond()) + start.getNano();
+    Map<String, Object> span = new LinkedHashMap<>();
+    span.put("traceId", traceId);
+    span.put("spanId", spanId);
+    span.put("name", name);
+    span.put("kind", 1); // SPAN_KIND_INTERNAL
+    // OTLP/JSON encodes 64 bit integers as strings
+    span.put("startTimeUnixNano", Long.toString(startNanos));
+    span.put("endTimeUnixNano", Long.toString(startNanos + durationNanos));
+    span.put("status", Map.of("code", failed ? 2 : 1)); // STATUS_CODE_ERROR : STATUS_CODE_OK
+    return span;
+  }
+
+  private static Map<String, Object> attribute(String key, String value) {
+    return Map.of("key", key, "value", Map.of("stringValue", value));
+  }
+
+  private static Map<String, Object> attribute(String key, long value) {
+    return Map.of("key", key, "value", Map.of("intValue", Long.toString(value)));
+  }
+
+  private static long millis(long nanos) {
+    return TimeUnit.NANOSECONDS.toMillis(nanos);
+  }
+}
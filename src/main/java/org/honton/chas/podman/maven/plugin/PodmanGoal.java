@@ -1,36 +1,41 @@
 package org.honton.chas.podman.maven.plugin;
 
+import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.LineNumberReader;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
-import java.util.function.IntConsumer;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import lombok.SneakyThrows;
+import java.util.stream.Collectors;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.honton.chas.podman.maven.plugin.cmdline.CommandLine;
+import org.honton.chas.podman.maven.plugin.libpod.LibpodResponse;
+import org.honton.chas.podman.maven.plugin.libpod.LibpodTransport;
 
 /** podman goal base functionality */
 public abstract class PodmanGoal extends AbstractMojo {
 
-  private static final Pattern WARNING =
-      Pattern.compile("\\[?(warning)]?:? ?(.+)", Pattern.CASE_INSENSITIVE);
-
-  private static final Pattern ERROR =
-      Pattern.compile("\\[?(error)]?:? ?(.+)", Pattern.CASE_INSENSITIVE);
-
   /** Skip upgrade */
   @Parameter(property = "podman.skip", defaultValue = "false")
   boolean skip;
@@ -41,39 +46,271 @@ public abstract class PodmanGoal extends AbstractMojo {
   /** Remote podman connection name */
   @Parameter public String connection;
 
+  /**
+   * Json report of the duration, exit code, and output size of each podman command run during the
+   * session
+   */
+  @Parameter(
+      property = "podman.metrics",
+      defaultValue = "${project.build.directory}/podman/metrics.json")
+  File metricsFile;
+
+  /**
+   * Characters of standard error retained from each command, for diagnosing its failure; the oldest
+   * output is discarded first
+   */
+  @Parameter(property = "podman.errorTail", defaultValue = "65536")
+  int errorTail = 65536;
+
+  /** OpenTelemetry (OTLP/JSON) export of the goal and command spans; not written when unset */
+  @Parameter(property = "podman.metrics.spans")
+  File spanFile;
+
+  // Current maven session
+  @Parameter(defaultValue = "${session}", readonly = true)
+  MavenSession session;
+
+  // Current goal execution
+  @Parameter(defaultValue = "${mojoExecution}", readonly = true)
+  MojoExecution mojoExecution;
+
+  private static final ThreadLocal<String> COMMAND_SUBJECT = new ThreadLocal<>();
+
   // work variables ...
   protected Path pwd; // current working directory
-  protected StringBuilder errorOutput;
-  private final AtomicReference<ExecutorService> executor = new AtomicReference<>();
+  private SessionMetrics.GoalTiming goalTiming;
+  private final List<CommandTiming> commandTimings = new CopyOnWriteArrayList<>();
 
   public final void execute() throws MojoFailureException, MojoExecutionException {
     if (skip) {
       getLog().info("skipping podman");
     } else {
+      goalTiming =
+          new SessionMetrics.GoalTiming(
+              mojoExecution != null ? mojoExecution.getGoal() : getClass().getSimpleName());
+      boolean succeeded = false;
       try {
         pwd = Path.of("").toAbsolutePath();
         doExecute();
+        succeeded = true;
       } catch (IOException e) {
         throw new MojoFailureException(e.getMessage(), e);
+      } finally {
+        reportMetrics(succeeded);
       }
     }
   }
 
-  protected ExecutorService getExecutor() {
-    ExecutorService foo = executor.get();
-    if (foo == null) {
-      ExecutorService pool = Executors.newCachedThreadPool();
-      if (executor.compareAndSet(null, pool)) {
-        foo = pool;
-      } else {
-        foo = executor.get();
+  /**
+   * Attribute the commands started by the current thread to a subject, such as a container alias
+   *
+   * @param subject The subject, or null to remove the attribution
+   */
+  protected static void setCommandSubject(String subject) {
+    if (subject != null) {
+      COMMAND_SUBJECT.set(subject);
+    } else {
+      COMMAND_SUBJECT.remove();
+    }
+  }
+
+  private CommandTiming startTiming(List<String> command, Process process, boolean background) {
+    return register(
+        new CommandTiming(goalTiming(), COMMAND_SUBJECT.get(), command, process, background));
+  }
+
+  private SessionMetrics.GoalTiming goalTiming() {
+    if (goalTiming == null) {
+      goalTiming = new SessionMetrics.GoalTiming(getClass().getSimpleName());
+    }
+    return goalTiming;
+  }
+
+  /**
+   * Time each request of a libpod transport as a command of this goal. A request which follows a
+   * log is timed as a background command.
+   *
+   * @param transport The transport to the libpod service
+   * @return The timed transport
+   */
+  protected LibpodTransport timed(LibpodTransport transport) {
+    return (method, path, body) -> {
+      CommandTiming timing =
+          register(
+              new CommandTiming(
+                  goalTiming(), COMMAND_SUBJECT.get(), method, path, path.contains("follow=true")));
+      LibpodResponse response;
+      try {
+        response = transport.exchange(method, path, body);
+      } catch (IOException | RuntimeException e) {
+        timing.failed();
+        throw e;
+      }
+      return new LibpodResponse(
+          response.getStatus(),
+          timing.response(response.getStatus(), response.getBody()),
+          response);
+    };
+  }
+
+  private CommandTiming register(CommandTiming timing) {
+    commandTimings.add(timing);
+    // background commands, such as log followers, may complete after this goal
+    SessionMetrics.Report report = SessionMetrics.get(session).report(metricsFile);
+    timing.completion().thenAccept(report::add);
+    return timing;
+  }
+
+  private void reportMetrics(boolean succeeded) {
+    goalTiming.finish(!succeeded);
+    if (commandTimings.isEmpty()) {
+      return;
+    }
+    try {
+      // output pumps finish shortly after their process exits
+      CompletableFuture.allOf(
+              commandTimings.stream()
+                  .filter(t -> !t.background)
+                  .map(CommandTiming::completion)
+                  .toArray(CompletableFuture[]::new))
+          .get(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException | TimeoutException e) {
+      getLog().debug("incomplete command timings: " + e.getMessage());
+    }
+
+    List<CommandTiming> completed =
+        commandTimings.stream().filter(t -> t.completion().isDone()).collect(Collectors.toList());
+    MetricsReport.summarize(completed).forEach(getLog()::info);
+
+    SessionMetrics metrics = SessionMetrics.get(session);
+    SessionMetrics.Report report = metrics.report(metricsFile);
+    report.add(goalTiming);
+    try {
+      if (metricsFile != null) {
+        write(metricsFile.toPath(), MetricsReport.toJson(report.getCommands()));
+      }
+      if (spanFile != null) {
+        write(
+            spanFile.toPath(),
+            MetricsReport.toSpans(metrics.traceId, report.getGoals(), report.getCommands()));
       }
+    } catch (IOException e) {
+      getLog().warn("unable to write podman metrics: " + e.getMessage());
     }
-    return foo;
+  }
+
+  private static void write(Path path, String content) throws IOException {
+    Path parent = path.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    Files.writeString(path, content);
+  }
+
+  /** The executor of concurrent actions, shared by the goals of the maven session */
+  protected ExecutorService getExecutor() {
+    return SessionExecutor.get(session);
+  }
+
+  /**
+   * The executor of tasks which block for the life of a process or container, such as stream pumps
+   * and log followers, shared by the goals of the maven session
+   */
+  protected ExecutorService getStreamExecutor() {
+    return SessionExecutor.streams(session);
   }
 
   protected abstract void doExecute() throws MojoExecutionException, IOException;
 
+  /** Writer of a process's standard input */
+  @FunctionalInterface
+  protected interface ProcessInput {
+    void writeTo(OutputStream os) throws IOException;
+  }
+
+  /** Reader of a process's standard output */
+  @FunctionalInterface
+  public interface ProcessOutput<T> {
+    T readFrom(InputStream is) throws IOException;
+  }
+
+  /** Check of a process's exit value */
+  @FunctionalInterface
+  public interface ProcessExit {
+    /**
+     * Check the exit of a process
+     *
+     * @param exitCode The exit value of the process
+     * @param errorOutput The retained tail of the standard error of the process
+     */
+    void exited(int exitCode, String errorOutput) throws MojoExecutionException;
+  }
+
+  /**
+   * Apply an action to each item concurrently and wait for all actions to complete
+   *
+   * @param items The items to act upon
+   * @param action The action to apply to each item
+   * @throws MojoExecutionException when any action fails
+   */
+  protected <T> void forEachConcurrently(Collection<T> items, Consumer<T> action)
+      throws MojoExecutionException, IOException {
+    forEachConcurrently(items, items.size(), action);
+  }
+
+  /**
+   * Apply an action to each item with bounded concurrency and wait for all actions to complete
+   *
+   * @param items The items to act upon
+   * @param parallelism The maximum number of concurrent actions
+   * @param action The action to apply to each item
+   * @throws MojoExecutionException when any action fails
+   */
+  protected <T> void forEachConcurrently(Collection<T> items, int parallelism, Consumer<T> action)
+      throws MojoExecutionException, IOException {
+    if (items.size() == 1 || parallelism == 1) {
+      for (T item : items) {
+        action.accept(item);
+      }
+      return;
+    }
+    ExecutorService pool = getExecutor();
+    // permits are taken before submitting, so waiting actions do not occupy pooled threads
+    Semaphore permits = new Semaphore(Math.max(1, parallelism));
+    List<CompletableFuture<?>> futures = new ArrayList<>();
+    for (T item : items) {
+      permits.acquireUninterruptibly();
+      futures.add(
+          CompletableFuture.runAsync(
+              () -> {
+                try {
+                  action.accept(item);
+                } finally {
+                  permits.release();
+                }
+              },
+              pool));
+    }
+    try {
+      CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof MojoExecutionException) {
+        throw (MojoExecutionException) cause;
+      }
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      throw new MojoExecutionException(cause.getMessage(), cause);
+    }
+  }
+
+  /**
+   * Pass each line of a stream to a consumer. The consumer is closed at end of stream if it is
+   * Closeable.
+   */
   void pumpLog(InputStream is, Consumer<String> lineConsumer) {
     try (LineNumberReader reader =
         new LineNumberReader(new InputStreamReader(is, StandardCharsets.UTF_8), 128)) {
@@ -87,10 +324,16 @@ public abstract class PodmanGoal extends AbstractMojo {
     } catch (IOException e) {
       lineConsumer.accept(e.getMessage());
     }
+    if (lineConsumer instanceof Closeable) {
+      try {
+        ((Closeable) lineConsumer).close();
+      } catch (IOException e) {
+        getLog().warn(e.getMessage());
+      }
+    }
   }
 
-  @SneakyThrows
-  private void throwException(int exitCode) {
+  private void throwException(int exitCode, String errorOutput) throws MojoExecutionException {
     if (exitCode != 0) {
       throw new MojoExecutionException("podman exit value: " + exitCode);
     }
@@ -109,7 +352,55 @@ public abstract class PodmanGoal extends AbstractMojo {
     executeCommand(command, stdin, this::infoLine, this::errorLine, this::throwException);
   }
 
-  protected String executeInfoCommand(List<String> command)
+  /**
+   * Execute a command, streaming its standard input
+   *
+   * @param command The command and parameters
+   * @param stdin Writes the standard input of the process, which is closed afterward
+   */
+  protected void executeCommandWithInput(List<String> command, ProcessInput stdin)
+      throws MojoExecutionException, IOException {
+    waitForProcess(
+        this::throwException, startProcess(command, stdin, this::infoLine, this::errorLine, false));
+  }
+
+  /**
+   * Execute commands with the standard output of each connected to the standard input of the next
+   * through an operating system pipe, without passing the content through this process
+   *
+   * @param commands The commands and their parameters, in pipeline order
+   */
+  protected void executePipeline(List<List<String>> commands)
+      throws MojoExecutionException, IOException {
+    getLog()
+        .info(commands.stream().map(c -> String.join(" ", c)).collect(Collectors.joining(" | ")));
+
+    List<Process> processes =
+        ProcessBuilder.startPipeline(
+            commands.stream().map(ProcessBuilder::new).collect(Collectors.toList()));
+    processes.get(0).getOutputStream().close();
+
+    ExecutorService pool = getStreamExecutor();
+    List<StartedProcess> started = new ArrayList<>();
+    CommandTiming timing = null;
+    for (int i = 0; i < processes.size(); ++i) {
+      if (timing != null) {
+        timing.stdoutNotRead();
+      }
+      timing = startTiming(commands.get(i), processes.get(i), false);
+      ErrorOutput errorOutput = new ErrorOutput(errorTail);
+      InputStream stderr = timing.getErrorStream();
+      pool.execute(() -> pumpLog(stderr, retaining(errorOutput, this::errorLine)));
+      started.add(new StartedProcess(processes.get(i), timing, errorOutput));
+    }
+    InputStream stdout = timing.getInputStream();
+    pool.execute(() -> pumpLog(stdout, this::infoLine));
+    for (StartedProcess process : started) {
+      waitForProcess(this::throwException, process);
+    }
+  }
+
+  public String executeInfoCommand(List<String> command)
       throws MojoExecutionException, IOException {
     StringBuilder sb = new StringBuilder();
     executeCommand(
@@ -117,13 +408,54 @@ public abstract class PodmanGoal extends AbstractMojo {
     return sb.toString();
   }
 
-  protected void createProcess(CommandLine generator, Consumer<String> filter) throws IOException {
-    createProcess(generator.getCommand(), null, filter, filter);
+  /**
+   * Execute a command, reading its standard output as a stream rather than as lines
+   *
+   * @param command The command and parameters
+   * @param stdout Reads the standard output of the process; any unread output is discarded
+   * @return The value read from standard output
+   */
+  public <T> T executeCommandWithOutput(List<String> command, ProcessOutput<T> stdout)
+      throws MojoExecutionException, IOException {
+    return executeCommandWithOutput(command, stdout, this::throwException);
+  }
+
+  /**
+   * Execute a command, reading its standard output as a stream rather than as lines
+   *
+   * @param command The command and parameters
+   * @param stdout Reads the standard output of the process; any unread output is discarded
+   * @param exit Checks the exit of the process
+   * @return The value read from standard output
+   */
+  public <T> T executeCommandWithOutput(
+      List<String> command, ProcessOutput<T> stdout, ProcessExit exit)
+      throws MojoExecutionException, IOException {
+    getLog().info(String.join(" ", command));
+
+    Process process = new ProcessBuilder(command).start();
+    CommandTiming timing = startTiming(command, process, false);
+    process.getOutputStream().close();
+    ErrorOutput errorOutput = new ErrorOutput(errorTail);
+    getStreamExecutor()
+        .execute(() -> pumpLog(timing.getErrorStream(), retaining(errorOutput, this::errorLine)));
+
+    T value;
+    try (InputStream is = timing.getInputStream()) {
+      value = stdout.readFrom(is);
+      is.transferTo(OutputStream.nullOutputStream());
+    }
+    waitForProcess(exit, new StartedProcess(process, timing, errorOutput));
+    return value;
+  }
+
+  public void createProcess(CommandLine generator, Consumer<String> filter) throws IOException {
+    startProcess(generator.getCommand(), null, filter, filter, true);
   }
 
-  protected void executeCommand(CommandLine generator, IntConsumer exitCode)
+  public void executeCommand(CommandLine generator, ProcessExit exit)
       throws MojoExecutionException, IOException {
-    executeCommand(generator.getCommand(), null, this::infoLine, this::errorLine, exitCode);
+    executeCommand(generator.getCommand(), null, this::infoLine, this::errorLine, exit);
   }
 
   protected void executeCommand(
@@ -131,36 +463,82 @@ public abstract class PodmanGoal extends AbstractMojo {
       String stdin,
       Consumer<String> stdout,
       Consumer<String> stderr,
-      IntConsumer exitCode)
+      ProcessExit exit)
       throws MojoExecutionException, IOException {
-    waitForProcess(exitCode, createProcess(command, stdin, stdout, stderr));
+    waitForProcess(
+        exit,
+        startProcess(
+            command,
+            stdin != null ? os -> os.write(stdin.getBytes(StandardCharsets.UTF_8)) : null,
+            stdout,
+            stderr,
+            false));
   }
 
-  protected Process createProcess(
-      List<String> command, String stdin, Consumer<String> stdout, Consumer<String> stderr)
+  private StartedProcess startProcess(
+      List<String> command,
+      ProcessInput stdin,
+      Consumer<String> stdout,
+      Consumer<String> stderr,
+      boolean background)
       throws IOException {
     getLog().info(String.join(" ", command));
-    errorOutput = new StringBuilder();
 
-    ExecutorService pool = getExecutor();
+    ExecutorService pool = getStreamExecutor();
     Process process = new ProcessBuilder(command).start();
-    pool.execute(() -> pumpLog(process.getInputStream(), stdout));
-    pool.execute(() -> pumpLog(process.getErrorStream(), stderr));
+    CommandTiming timing = startTiming(command, process, background);
+    if (background) {
+      SessionExecutor.destroyAtEnd(session, process);
+    }
+    // a background process is never checked, so retains nothing
+    ErrorOutput errorOutput = new ErrorOutput(background ? 0 : errorTail);
+    pool.execute(() -> pumpLog(timing.getInputStream(), stdout));
+    pool.execute(() -> pumpLog(timing.getErrorStream(), retaining(errorOutput, stderr)));
 
-    OutputStream os = process.getOutputStream();
-    if (stdin != null) {
-      os.write(stdin.getBytes(StandardCharsets.UTF_8));
+    try (OutputStream os = process.getOutputStream()) {
+      if (stdin != null) {
+        stdin.writeTo(os);
+      }
     }
-    os.close();
-    return process;
+    return new StartedProcess(process, timing, errorOutput);
   }
 
-  private void waitForProcess(IntConsumer exitCode, Process process) throws MojoExecutionException {
+  /** Retain each line of standard error before passing it on */
+  static Consumer<String> retaining(ErrorOutput errorOutput, Consumer<String> stderr) {
+    return line -> {
+      errorOutput.appendLine(line);
+      stderr.accept(line);
+    };
+  }
+
+  private void waitForProcess(ProcessExit exit, StartedProcess started)
+      throws MojoExecutionException {
+    int exitCode;
     try {
-      exitCode.accept(process.waitFor());
+      exitCode = started.process.waitFor();
+      // the retained output is complete once standard error is consumed
+      started.timing.errorClosed().get(5, TimeUnit.SECONDS);
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
       throw new MojoExecutionException(e.getMessage(), e);
+    } catch (ExecutionException | TimeoutException e) {
+      // a descendant process may hold standard error open
+      getLog().debug("incomplete standard error: " + e.getMessage());
+      exitCode = started.process.exitValue();
+    }
+    exit.exited(exitCode, started.errorOutput.toString());
+  }
+
+  /** A process, and the tail of its standard error retained for its exit check */
+  private static final class StartedProcess {
+    final Process process;
+    final CommandTiming timing;
+    final ErrorOutput errorOutput;
+
+    StartedProcess(Process process, CommandTiming timing, ErrorOutput errorOutput) {
+      this.process = process;
+      this.timing = timing;
+      this.errorOutput = errorOutput;
     }
   }
 
@@ -168,19 +546,45 @@ public abstract class PodmanGoal extends AbstractMojo {
     getLog().info(lineText);
   }
 
-  private void errorLine(String lineText) {
-    errorOutput.append(lineText);
-
-    Matcher warning = WARNING.matcher(lineText);
-    if (warning.matches()) {
-      getLog().warn(warning.group(2));
+  void errorLine(String lineText) {
+    int start = messageStart(lineText, "warning");
+    if (start >= 0) {
+      getLog().warn(lineText.substring(start));
+      return;
+    }
+    start = messageStart(lineText, "error");
+    if (start >= 0) {
+      getLog().error(lineText.substring(start));
     } else {
-      Matcher error = ERROR.matcher(lineText);
-      if (error.matches()) {
-        getLog().error(error.group(2));
-      } else {
-        getLog().info(lineText);
-      }
+      getLog().info(lineText);
+    }
+  }
+
+  /**
+   * Find the message of a line which starts with a severity, such as `WARNING: message`, `[error]
+   * message`, or `Error message`. The severity is matched ignoring case, and may be bracketed and
+   * followed by a colon and a space.
+   *
+   * @param line The line of output
+   * @param severity The lower case severity
+   * @return The index of the message, or -1 if the line does not start with the severity or has no
+   *     message
+   */
+  static int messageStart(String line, String severity) {
+    int length = line.length();
+    int i = length > 0 && line.charAt(0) == '[' ? 1 : 0;
+    if (!line.regionMatches(true, i, severity, 0, severity.length())) {
+      return -1;
     }
+    i += severity.length();
+    // each separator is optional, and is kept as message when nothing follows it
+    i = skip(line, i, ']');
+    i = skip(line, i, ':');
+    i = skip(line, i, ' ');
+    return i < length ? i : -1;
+  }
+
+  private static int skip(String line, int i, char separator) {
+    return i + 1 < line.length() && line.charAt(i) == separator ? i + 1 : i;
   }
 }
@@ -0,0 +1,116 @@
+package org.honton.chas.podman.maven.plugin;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import lombok.experimental.Delegate;
+import org.apache.maven.execution.AbstractExecutionListener;
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.ExecutionListener;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+
+/**
+ * Executors shared by all podman goals of a maven session and shut down when the session ends.
+ * Background processes of the session, such as log followers, are destroyed when the session ends.
+ */
+final class SessionExecutor {
+
+  private static final String KEY = SessionExecutor.class.getName();
+
+  private static SessionExecutor outsideSession;
+
+  private final ExecutorService tasks = ExecutorFactory.createTaskExecutor();
+  private final ExecutorService streams = ExecutorFactory.createStreamExecutor();
+  private final Set<Process> background = ConcurrentHashMap.newKeySet();
+
+  private SessionExecutor() {}
+
+  /**
+   * Get the executor of goal actions of a session, creating it on first use
+   *
+   * @param session The maven session, or null when not run by maven
+   */
+  static ExecutorService get(MavenSession session) {
+    return of(session).tasks;
+  }
+
+  /**
+   * Get the executor of process stream pumps and log followers of a session, creating it on first
+   * use
+   *
+   * @param session The maven session, or null when not run by maven
+   */
+  static ExecutorService streams(MavenSession session) {
+    return of(session).streams;
+  }
+
+  /**
+   * Destroy a background process when the session ends, unless it has exited by then
+   *
+   * @param session The maven session, or null when not run by maven
+   * @param process The background process
+   */
+  static void destroyAtEnd(MavenSession session, Process process) {
+    Set<Process> background = of(session).background;
+    background.add(process);
+    process.onExit().thenAccept(background::remove);
+  }
+
+  private static SessionExecutor of(MavenSession session) {
+    if (session == null) {
+      synchronized (SessionExecutor.class) {
+        if (outsideSession == null) {
+          outsideSession = new SessionExecutor();
+        }
+        return outsideSession;
+      }
+    }
+
+    MavenExecutionRequest request = session.getRequest();
+    synchronized (request) {
+      Map<String, Object> data = request.getData();
+      SessionExecutor sessionExecutor = (SessionExecutor) data.get(KEY);
+      if (sessionExecutor == null) {
+        sessionExecutor = new SessionExecutor();
+        data.put(KEY, sessionExecutor);
+        request.setExecutionListener(
+            new ShutdownListener(request.getExecutionListener(), sessionExecutor));
+      }
+      return sessionExecutor;
+    }
+  }
+
+  private void end() {
+    // a follower of a container which outlives the session would otherwise never exit
+    background.forEach(Process::destroy);
+    // running pumps drain their streams; idle threads exit
+    tasks.shutdown();
+    streams.shutdown();
+  }
+
+  /** Pass events through to the prior listener, shutting the executors down at session end */
+  private static class ShutdownListener implements ExecutionListener {
+
+    @Delegate(excludes = SessionEnded.class)
+    private final ExecutionListener delegate;
+
+    private final SessionExecutor sessionExecutor;
+
+    ShutdownListener(ExecutionListener delegate, SessionExecutor sessionExecutor) {
+      this.delegate = delegate != null ? delegate : new AbstractExecutionListener();
+      this.sessionExecutor = sessionExecutor;
+    }
+
+    @Override
+    public void sessionEnded(ExecutionEvent event) {
+      sessionExecutor.end();
+      delegate.sessionEnded(event);
+    }
+  }
+
+  private interface SessionEnded {
+    void sessionEnded(ExecutionEvent event);
+  }
+}
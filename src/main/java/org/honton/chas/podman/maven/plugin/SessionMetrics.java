@@ -0,0 +1,117 @@
+package org.honton.chas.podman.maven.plugin;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+
+/**
+ * Command timings of a maven session. Timings are grouped by the metrics file they are reported to,
+ * so that each project's file holds every podman command of that project in the session.
+ */
+final class SessionMetrics {
+
+  private static final String KEY = SessionMetrics.class.getName();
+
+  private static SessionMetrics outsideSession;
+
+  /** Trace id shared by the spans of the session */
+  final String traceId = randomHex(16);
+
+  private final Map<String, Report> reports = new HashMap<>();
+
+  private SessionMetrics() {}
+
+  /**
+   * Get the metrics of a session, creating them on first use
+   *
+   * @param session The maven session, or null when not run by maven
+   */
+  static SessionMetrics get(MavenSession session) {
+    if (session == null) {
+      synchronized (SessionMetrics.class) {
+        if (outsideSession == null) {
+          outsideSession = new SessionMetrics();
+        }
+        return outsideSession;
+      }
+    }
+
+    MavenExecutionRequest request = session.getRequest();
+    synchronized (request) {
+      return (SessionMetrics) request.getData().computeIfAbsent(KEY, k -> new SessionMetrics());
+    }
+  }
+
+  /**
+   * Get the timings reported to a file
+   *
+   * @param file The metrics file, or null when metrics are not written
+   */
+  synchronized Report report(Object file) {
+    return reports.computeIfAbsent(String.valueOf(file), k -> new Report());
+  }
+
+  static String randomHex(int bytes) {
+    StringBuilder sb = new StringBuilder(bytes * 2);
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    for (int i = 0; i < bytes; ++i) {
+      sb.append(String.format("%02x", random.nextInt(256)));
+    }
+    return sb.toString();
+  }
+
+  /** Timings reported to one metrics file */
+  static final class Report {
+    private final List<GoalTiming> goals = new ArrayList<>();
+    private final List<CommandTiming> commands = new ArrayList<>();
+
+    synchronized void add(GoalTiming goal) {
+      goals.add(goal);
+    }
+
+    synchronized void add(CommandTiming command) {
+      commands.add(command);
+    }
+
+    synchronized List<GoalTiming> getGoals() {
+      return new ArrayList<>(goals);
+    }
+
+    synchronized List<CommandTiming> getCommands() {
+      return new ArrayList<>(commands);
+    }
+  }
+
+  /** Duration and outcome of one goal execution */
+  static final class GoalTiming {
+    final String goal;
+    final String spanId = randomHex(8);
+    final Instant start = Instant.now();
+
+    private final long startNanos = System.nanoTime();
+    private long durationNanos;
+    private boolean failed;
+
+    GoalTiming(String goal) {
+      this.goal = goal;
+    }
+
+    synchronized void finish(boolean failed) {
+      durationNanos = System.nanoTime() - startNanos;
+      this.failed = failed;
+    }
+
+    synchronized long getDurationNanos() {
+      return durationNanos;
+    }
+
+    synchronized boolean isFailed() {
+      return failed;
+    }
+  }
+}
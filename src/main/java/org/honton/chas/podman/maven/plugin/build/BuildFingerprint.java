@@ -0,0 +1,51 @@
+package org.honton.chas.podman.maven.plugin.build;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.honton.chas.podman.maven.plugin.Digests;
+
+/**
+ * Content fingerprint of the build inputs. Each file in the context directory is hashed in
+ * parallel; the file hashes, the relative file names, the containerfile name, the build arguments
+ * and the platforms are then combined into a single digest.
+ */
+final class BuildFingerprint {
+
+  private BuildFingerprint() {}
+
+  /**
+   * Compute the fingerprint of the build inputs
+   *
+   * @param containerfile The name of the containerfile
+   * @param buildArguments The build arguments, may be null
+   * @param platforms The target platforms, may be null
+   * @param contextDir The root of the build context
+   * @return The hex encoded fingerprint
+   */
+  static String of(
+      String containerfile,
+      Map<String, String> buildArguments,
+      List<String> platforms,
+      Path contextDir)
+      throws IOException {
+    Digests.Combiner combiner =
+        new Digests.Combiner().add(containerfile).add(buildArguments).add(platforms);
+    addDirectory(combiner, contextDir);
+    return combiner.digest();
+  }
+
+  /** Add the name and contents of every regular file in a directory tree */
+  private static void addDirectory(Digests.Combiner combiner, Path contextDir) throws IOException {
+    List<Path> files;
+    try (Stream<Path> walk = Files.walk(contextDir)) {
+      files = walk.filter(Files::isRegularFile).collect(Collectors.toList());
+    }
+    Digests.mapFiles(contextDir, files, (name, file) -> Digests.hash(file))
+        .forEach((name, hash) -> combiner.add(name).add(hash));
+  }
+}
@@ -2,10 +2,14 @@ package org.honton.chas.podman.maven.plugin.build;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
@@ -18,6 +22,8 @@ import org.honton.chas.podman.maven.plugin.cmdline.CommandLine;
 @Mojo(name = "build", defaultPhase = LifecyclePhase.PACKAGE, threadSafe = true)
 public class PodmanBuild extends PodmanGoal {
 
+  static final String FINGERPRINT_LABEL = "org.honton.chas.podman.fingerprint";
+
   /** Directory containing source content for build */
   @Parameter(required = true, defaultValue = "${project.build.directory}/contextDir")
   File contextDir;
@@ -40,6 +46,39 @@ public class PodmanBuild extends PodmanGoal {
   @Parameter(defaultValue = "false")
   boolean loadDockerCache;
 
+  /**
+   * Build each platform in a separate, concurrent podman process and assemble the resulting images
+   * into the manifest list
+   */
+  @Parameter(property = "podman.build.concurrentPlatforms", defaultValue = "false")
+  boolean concurrentPlatforms;
+
+  /** Maximum number of concurrent platform builds. Default is all platforms at once. */
+  @Parameter(property = "podman.build.platformParallelism", defaultValue = "0")
+  int platformParallelism;
+
+  /**
+   * Skip the build when the fingerprint of the build inputs matches the existing local image. The
+   * base images named by `FROM` are not part of the fingerprint, so a base image tag which moved to
+   * a new image does not cause a build.
+   */
+  @Parameter(property = "podman.build.skipUnchanged", defaultValue = "false")
+  boolean skipUnchanged;
+
+  /** Fingerprint of the build inputs of the most recent build */
+  @Parameter(
+      required = true,
+      readonly = true,
+      defaultValue = "${project.build.directory}/podman/build.fingerprint")
+  File fingerprintFile;
+
+  /**
+   * Write the image to dockerImageTar when loading the docker image cache, rather than piping
+   * podman save directly into docker load
+   */
+  @Parameter(property = "podman.build.saveDockerImageTar", defaultValue = "false")
+  boolean saveDockerImageTar;
+
   /** image tar */
   @Parameter(
       required = true,
@@ -48,19 +87,164 @@ public class PodmanBuild extends PodmanGoal {
   File dockerImageTar;
 
   protected final void doExecute() throws IOException, MojoExecutionException {
-    executeCommand(
-        new BuildCommandLine(this)
-            .addArgs(buildArguments)
-            .addPlatformAndImage(platforms, image)
-            .addContainerfile(containerfile)
-            .addContext(pwd.relativize(contextDir.toPath())));
+    String fingerprint = skipUnchanged ? fingerprint() : null;
+    if (fingerprint != null && isUnchanged(fingerprint)) {
+      getLog().info(image + " is unchanged, skipping build");
+    } else {
+      build(fingerprint);
+    }
 
+    // the docker cache may have been pruned since the image was built
     if (loadDockerCache) {
       loadImage();
     }
   }
 
+  private void build(String fingerprint) throws IOException, MojoExecutionException {
+    Set<String> platformSet = BuildCommandLine.platforms(platforms);
+    if (concurrentPlatforms && platformSet.size() > 1) {
+      buildPlatforms(platformSet, fingerprint);
+    } else {
+      executeCommand(buildCommand(platforms, image, fingerprint));
+    }
+
+    if (fingerprint != null) {
+      Path path = fingerprintFile.toPath();
+      Files.createDirectories(path.getParent());
+      Files.writeString(path, fingerprint, StandardCharsets.UTF_8);
+    }
+  }
+
+  private BuildCommandLine buildCommand(List<String> platforms, String tag, String fingerprint) {
+    BuildCommandLine commandLine =
+        new BuildCommandLine(this)
+            .addArgs(buildArguments)
+            .addPlatformAndImage(platforms, tag)
+            .addContainerfile(containerfile);
+    if (fingerprint != null) {
+      commandLine.addLabel(FINGERPRINT_LABEL, fingerprint);
+    }
+    return commandLine.addContext(pwd.relativize(contextDir.toPath()));
+  }
+
+  /**
+   * Build each platform in its own podman process under a temporary tag, then assemble the manifest
+   * list and remove the temporary tags
+   */
+  private void buildPlatforms(Set<String> platformSet, String fingerprint)
+      throws IOException, MojoExecutionException {
+    Map<String, String> tags = new LinkedHashMap<>();
+    platformSet.forEach(platform -> tags.put(platform, platformTag(image, platform)));
+
+    Map<String, Exception> failures = new ConcurrentSkipListMap<>();
+    forEachConcurrently(
+        platformSet,
+        platformParallelism > 0 ? platformParallelism : platformSet.size(),
+        platform -> {
+          long startTime = System.currentTimeMillis();
+          try {
+            executeCommand(buildCommand(List.of(platform), tags.get(platform), fingerprint));
+            getLog()
+                .info(platform + " built in " + (System.currentTimeMillis() - startTime) + " ms");
+          } catch (MojoExecutionException | IOException | RuntimeException e) {
+            failures.put(platform, e);
+          }
+        });
+    if (!failures.isEmpty()) {
+      failures.forEach((platform, e) -> getLog().error(platform + " failed: " + e.getMessage()));
+      throw new MojoExecutionException("Build failed for " + failures.keySet());
+    }
+
+    int[] exists = new int[1];
+    executeCommand(
+        new CommandLine(this).addCmd("manifest").addParameter("exists").addParameter(image),
+        (code, stderr) -> exists[0] = code);
+    if (exists[0] == 0) {
+      executeCommand(
+          new CommandLine(this).addCmd("manifest").addParameter("rm").addParameter(image));
+    }
+    executeCommand(
+        new CommandLine(this).addCmd("manifest").addParameter("create").addParameter(image));
+    for (String tag : tags.values()) {
+      executeCommand(
+          new CommandLine(this)
+              .addCmd("manifest")
+              .addParameter("add")
+              .addParameter(image)
+              .addParameter("containers-storage:" + tag));
+    }
+
+    // the manifest list refers to each platform image by digest; the platform tags are not needed
+    for (String tag : tags.values()) {
+      executeCommand(new CommandLine(this).addCmd("untag").addParameter(tag).addParameter(tag));
+    }
+  }
+
+  /**
+   * The tag of a single platform's image
+   *
+   * @param image The image name, with or without tag
+   * @param platform The os/arch[/variant] of the image
+   * @return The image name with the platform appended to its tag
+   */
+  static String platformTag(String image, String platform) {
+    String suffix = platform.replace('/', '-');
+    return image.lastIndexOf(':') > image.lastIndexOf('/')
+        ? image + '-' + suffix
+        : image + ':' + suffix;
+  }
+
+  private String fingerprint() throws IOException {
+    long startTime = System.currentTimeMillis();
+    String fingerprint =
+        BuildFingerprint.of(containerfile, buildArguments, platforms, contextDir.toPath());
+    getLog()
+        .debug(
+            "fingerprint "
+                + fingerprint
+                + " in "
+                + (System.currentTimeMillis() - startTime)
+                + " ms");
+    return fingerprint;
+  }
+
+  /**
+   * Check that the prior build had the same fingerprint and the local image still carries that
+   * fingerprint.
+   */
+  private boolean isUnchanged(String fingerprint) throws IOException, MojoExecutionException {
+    Path path = fingerprintFile.toPath();
+    if (!Files.isRegularFile(path)
+        || !fingerprint.equals(Files.readString(path, StandardCharsets.UTF_8).strip())) {
+      return false;
+    }
+
+    StringBuilder label = new StringBuilder();
+    int[] exitCode = new int[1];
+    executeCommand(
+        new CommandLine(this)
+            .addCmd("image")
+            .addParameter("inspect")
+            .addParameter("--format")
+            .addParameter("{{index .Labels \"" + FINGERPRINT_LABEL + "\"}}")
+            .addParameter(image)
+            .getCommand(),
+        null,
+        label::append,
+        line -> getLog().debug(line),
+        (code, stderr) -> exitCode[0] = code);
+    return exitCode[0] == 0 && fingerprint.equals(label.toString().strip());
+  }
+
   private void loadImage() throws IOException, MojoExecutionException {
+    if (!saveDockerImageTar) {
+      executePipeline(
+          List.of(
+              new CommandLine(this).addCmd("save").addParameter(image).getCommand(),
+              List.of("docker", "load")));
+      return;
+    }
+
     Path path = dockerImageTar.toPath();
     Files.createDirectories(path.getParent());
     String tarLocation = pwd.relativize(path).toString();
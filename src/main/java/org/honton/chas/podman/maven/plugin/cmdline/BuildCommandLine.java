@@ -32,18 +32,34 @@ public class BuildCommandLine extends CommandLine {
    * @return true if multi-platform
    */
   private boolean addPlatforms(List<String> platforms) {
-    if (platforms != null) {
-      Set<String> set = new LinkedHashSet<>();
-      platforms.forEach(p -> Arrays.stream(p.split(",")).map(String::strip).forEach(set::add));
-      if (!set.isEmpty()) {
-        command.add("--platform");
-        command.add(String.join(",", set));
-        return set.size() > 1;
-      }
+    Set<String> set = platforms(platforms);
+    if (!set.isEmpty()) {
+      command.add("--platform");
+      command.add(String.join(",", set));
+      return set.size() > 1;
     }
     return false;
   }
 
+  /**
+   * Split the configured platforms
+   *
+   * @param platforms Platform elements, each of which may contain comma separated os/arch
+   * @return The distinct platforms, in configured order
+   */
+  public static Set<String> platforms(List<String> platforms) {
+    Set<String> set = new LinkedHashSet<>();
+    if (platforms != null) {
+      platforms.forEach(
+          p ->
+              Arrays.stream(p.split(","))
+                  .map(String::strip)
+                  .filter(s -> !s.isEmpty())
+                  .forEach(set::add));
+    }
+    return set;
+  }
+
   public BuildCommandLine addPlatformAndImage(List<String> platforms, String image) {
     if (addPlatforms(platforms)) {
       command.add("--manifest");
@@ -54,6 +70,12 @@ public class BuildCommandLine extends CommandLine {
     return this;
   }
 
+  public BuildCommandLine addLabel(String key, String value) {
+    command.add("--label");
+    command.add(key + "=" + value);
+    return this;
+  }
+
   public BuildCommandLine addContainerfile(String containerfile) {
     if (!"Containerfile".equals(containerfile)) {
       command.add("--file");
@@ -49,19 +49,33 @@ public class ContainerConfig {
   /** Override image entrypoint */
   @Parameter public String entrypoint;
 
+  /** Signal sent to stop the container. Defaults to the image's STOPSIGNAL or SIGTERM */
+  @Parameter public String stopSignal;
+
+  /** Seconds to wait for the container to stop before it is killed. Defaults to 10 */
+  @Parameter public Integer stopTimeout;
+
   /** File containing environment variables that are set when container runs */
   @Parameter public String envFile;
 
   /** Map of environment variables that are set when container runs */
   @Parameter public Map<String, String> env;
 
+  /**
+   * Warm start from a checkpoint of the container taken once it was ready. Requires rootful podman
+   * with CRIU; falls back to a normal start when the checkpoint cannot be restored.
+   */
+  @Parameter(defaultValue = "false")
+  public boolean checkpoint;
+
   /** Volume mappings */
   @Parameter public MountsConfig mounts;
 
   /**
    * Map of host ports to container ports. Key is the name of a maven property. If property is set,
    * then that value is used as host [interface:]port; otherwise the property is set to the value of
-   * the dynamically assigned host port. The value is the container port
+   * the dynamically assigned host port. The value is the container port[/protocol], where protocol
+   * is tcp, udp, or sctp; defaults to tcp
    */
-  @Parameter public Map<String, Integer> ports;
+  @Parameter public Map<String, String> ports;
 }
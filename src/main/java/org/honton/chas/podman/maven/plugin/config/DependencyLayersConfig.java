@@ -0,0 +1,21 @@
+package org.honton.chas.podman.maven.plugin.config;
+
+import lombok.ToString;
+import org.apache.maven.plugins.annotations.Parameter;
+
+/** Layers of the project's runtime dependencies, resources, and classes */
+@ToString
+public class DependencyLayersConfig {
+  /** Owner:Group of the files in the image */
+  @Parameter public String chown;
+
+  /** Permissions of the files in the image */
+  @Parameter public String chmod;
+
+  /**
+   * Absolute destination in the image. Dependencies are copied to dest/lib; resources and classes
+   * are copied to dest/classes.
+   */
+  @Parameter(defaultValue = "/app")
+  public String dest = "/app";
+}
@@ -16,7 +16,10 @@ public class HttpWaitConfig {
   @Parameter(required = true, defaultValue = "200")
   public int status;
 
-  /** Interval (in seconds) between polls */
-  @Parameter(required = true, defaultValue = "15")
+  /**
+   * Maximum interval (in seconds) between polls. Polls start rapidly and back off exponentially to
+   * this interval.
+   */
+  @Parameter(required = true, defaultValue = "2")
   public int interval;
 }
@@ -1,5 +1,6 @@
 package org.honton.chas.podman.maven.plugin.config;
 
+import java.util.List;
 import lombok.ToString;
 import org.apache.maven.plugins.annotations.Parameter;
 
@@ -12,6 +13,18 @@ public class WaitConfig {
   /** String to detect in log */
   @Parameter public String log;
 
+  /** Strings which must all be detected in log */
+  @Parameter public List<String> logs;
+
+  /** Regular expressions which must all match a log line */
+  @Parameter public List<String> logPatterns;
+
+  /** Strings which fail the wait when detected in log */
+  @Parameter public List<String> failures;
+
+  /** Regular expressions which fail the wait when matching a log line */
+  @Parameter public List<String> failurePatterns;
+
   /** Seconds to wait before failing */
   @Parameter(defaultValue = "60")
   public int time;
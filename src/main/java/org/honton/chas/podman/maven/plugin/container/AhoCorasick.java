@@ -0,0 +1,126 @@
+package org.honton.chas.podman.maven.plugin.container;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+
+/** Find all occurrences of many literals within text in a single pass */
+class AhoCorasick {
+
+  private final Node root;
+
+  /**
+   * Build the automaton
+   *
+   * @param literals The literals to find; a literal's id is its index
+   */
+  AhoCorasick(List<String> literals) {
+    BuildNode buildRoot = new BuildNode();
+    for (int id = 0; id < literals.size(); ++id) {
+      BuildNode node = buildRoot;
+      for (char c : literals.get(id).toCharArray()) {
+        node = node.children.computeIfAbsent(c, k -> new BuildNode());
+      }
+      node.outputs = append(node.outputs, id);
+    }
+    root = freeze(buildRoot);
+    linkFailures();
+  }
+
+  private static int[] append(int[] array, int value) {
+    int[] extended = Arrays.copyOf(array, array.length + 1);
+    extended[array.length] = value;
+    return extended;
+  }
+
+  private static Node freeze(BuildNode buildNode) {
+    Node node = new Node(buildNode.children.size(), buildNode.outputs);
+    int i = 0;
+    for (Map.Entry<Character, BuildNode> entry : buildNode.children.entrySet()) {
+      node.keys[i] = entry.getKey();
+      node.next[i] = freeze(entry.getValue());
+      ++i;
+    }
+    return node;
+  }
+
+  /** breadth first assignment of failure links and merging of outputs */
+  private void linkFailures() {
+    Queue<Node> queue = new ArrayDeque<>();
+    root.fail = root;
+    for (Node child : root.next) {
+      child.fail = root;
+      queue.add(child);
+    }
+    while (!queue.isEmpty()) {
+      Node node = queue.remove();
+      for (int i = 0; i < node.keys.length; ++i) {
+        char c = node.keys[i];
+        Node child = node.next[i];
+        Node fail = node.fail;
+        while (fail != root && fail.child(c) == null) {
+          fail = fail.fail;
+        }
+        Node target = fail.child(c);
+        child.fail = target != null && target != child ? target : root;
+        if (child.fail.outputs.length > 0) {
+          int[] merged =
+              Arrays.copyOf(child.outputs, child.outputs.length + child.fail.outputs.length);
+          System.arraycopy(
+              child.fail.outputs, 0, merged, child.outputs.length, child.fail.outputs.length);
+          child.outputs = merged;
+        }
+        queue.add(child);
+      }
+    }
+  }
+
+  /**
+   * Find the literals within text
+   *
+   * @param text The text to search
+   * @param found Accepts the id of each literal found; may be called more than once per id
+   */
+  void search(CharSequence text, IntConsumer found) {
+    Node node = root;
+    for (int i = 0; i < text.length(); ++i) {
+      char c = text.charAt(i);
+      Node next = node.child(c);
+      while (next == null && node != root) {
+        node = node.fail;
+        next = node.child(c);
+      }
+      node = next != null ? next : root;
+      for (int id : node.outputs) {
+        found.accept(id);
+      }
+    }
+  }
+
+  private static class BuildNode {
+    final Map<Character, BuildNode> children = new TreeMap<>();
+    int[] outputs = new int[0];
+  }
+
+  private static class Node {
+    final char[] keys;
+    final Node[] next;
+    int[] outputs;
+    Node fail;
+
+    Node(int size, int[] outputs) {
+      keys = new char[size];
+      next = new Node[size];
+      this.outputs = outputs;
+    }
+
+    Node child(char c) {
+      int i = Arrays.binarySearch(keys, c);
+      return i >= 0 ? next[i] : null;
+    }
+  }
+}
@@ -0,0 +1,124 @@
+package org.honton.chas.podman.maven.plugin.container;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * Directory of container checkpoint archives, keyed by container fingerprint. The modification time
+ * of an archive records its last use; once the archives exceed the size limit, the least recently
+ * used are deleted.
+ */
+class CheckpointCache {
+
+  private static final String SUFFIX = ".tar";
+
+  private final Path directory;
+  private final long maxBytes;
+  private final Consumer<String> log;
+
+  /**
+   * Create a cache
+   *
+   * @param directory The directory holding the archives
+   * @param maxBytes The maximum total size of the archives
+   * @param log Receives a message for each evicted archive
+   */
+  CheckpointCache(Path directory, long maxBytes, Consumer<String> log) {
+    this.directory = directory;
+    this.maxBytes = maxBytes;
+    this.log = log;
+  }
+
+  /**
+   * Find the archive of a fingerprint, marking it as recently used
+   *
+   * @param key The container fingerprint
+   * @return The archive, or null if not cached
+   */
+  Path lookup(String key) throws IOException {
+    Path archive = directory.resolve(key + SUFFIX);
+    try {
+      Files.setLastModifiedTime(archive, FileTime.fromMillis(System.currentTimeMillis()));
+      return archive;
+    } catch (NoSuchFileException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Create a unique path into which a checkpoint is exported before being stored
+   *
+   * @param key The container fingerprint
+   * @return The staging path, which does not yet exist
+   */
+  Path stage(String key) throws IOException {
+    Files.createDirectories(directory);
+    return directory.resolve(
+        key + '.' + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+  }
+
+  /**
+   * Store a staged archive, then evict the least recently used archives beyond the size limit
+   *
+   * @param key The container fingerprint
+   * @param staged The exported archive
+   * @return The size of the stored archive
+   */
+  synchronized long store(String key, Path staged) throws IOException {
+    Path archive = directory.resolve(key + SUFFIX);
+    Files.move(
+        staged, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    evict(archive);
+    return Files.size(archive);
+  }
+
+  /** Delete the least recently used archives, other than the one just stored */
+  private void evict(Path stored) throws IOException {
+    List<Entry> entries = new ArrayList<>();
+    try (DirectoryStream<Path> archives = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+      for (Path archive : archives) {
+        try {
+          BasicFileAttributes attributes = Files.readAttributes(archive, BasicFileAttributes.class);
+          entries.add(
+              new Entry(archive, attributes.size(), attributes.lastModifiedTime().toMillis()));
+        } catch (NoSuchFileException e) {
+          // removed by a concurrent build
+        }
+      }
+    }
+    entries.sort(Comparator.comparingLong((Entry e) -> e.lastUsed).reversed());
+
+    long total = 0;
+    for (Entry entry : entries) {
+      total += entry.size;
+      if (total > maxBytes && !entry.archive.equals(stored)) {
+        log.accept("Evicting checkpoint " + entry.archive.getFileName());
+        Files.deleteIfExists(entry.archive);
+        total -= entry.size;
+      }
+    }
+  }
+
+  private static class Entry {
+    final Path archive;
+    final long size;
+    final long lastUsed;
+
+    Entry(Path archive, long size, long lastUsed) {
+      this.archive = archive;
+      this.size = size;
+      this.lastUsed = lastUsed;
+    }
+  }
+}
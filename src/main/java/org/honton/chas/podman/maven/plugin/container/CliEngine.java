@@ -0,0 +1,212 @@
+package org.honton.chas.podman.maven.plugin.container;
+
+import com.fasterxml.jackson.jr.ob.JSON;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.honton.chas.podman.maven.plugin.cmdline.CommandLine;
+import org.honton.chas.podman.maven.plugin.config.ContainerConfig;
+import org.honton.chas.podman.maven.plugin.config.LogConfig;
+
+/** Container engine which forks the podman command line */
+class CliEngine implements ContainerEngine {
+
+  private final PodmanContainer goal;
+
+  CliEngine(PodmanContainer goal) {
+    this.goal = goal;
+  }
+
+  @Override
+  public void createNetwork(String networkName, String driver)
+      throws MojoExecutionException, IOException {
+    NetworkCommandLine cmdLine = new NetworkCommandLine(goal);
+    cmdLine.addCmd("create");
+    if (driver != null) {
+      cmdLine.addParameter("--driver").addParameter(driver);
+    }
+    cmdLine.addParameter(networkName);
+    goal.executeCommand(cmdLine, CliEngine::checkExists);
+  }
+
+  private static void checkExists(int exitCode, String errorOutput) throws MojoExecutionException {
+    if (exitCode != 0 && !errorOutput.contains("network already exists")) {
+      throw new MojoExecutionException("podman exit value: " + exitCode);
+    }
+  }
+
+  @Override
+  public void removeNetwork(String networkName) throws MojoExecutionException, IOException {
+    NetworkCommandLine cmdLine = new NetworkCommandLine(goal);
+    cmdLine.addCmd("rm");
+    cmdLine.addParameter(networkName);
+    goal.executeCommand(cmdLine);
+  }
+
+  @Override
+  public String createPod(
+      String podName,
+      Collection<ContainerConfig> containerConfigs,
+      Map<String, String> portToPropertyName)
+      throws MojoExecutionException, IOException {
+    PodCreateCommandLine createCommandLine =
+        new PodCreateCommandLine(goal, podName, containerConfigs);
+    goal.executeCommand(createCommandLine);
+    portToPropertyName.putAll(createCommandLine.getPortToPropertyName());
+
+    // start the infra container so that host ports are assigned before any container starts
+    goal.executeCommand(new CommandLine(goal).addCmd("pod").addCmd("start").addParameter(podName));
+    CommandLine inspect =
+        new CommandLine(goal)
+            .addCmd("pod")
+            .addCmd("inspect")
+            .addParameter("--format")
+            .addParameter("{{.InfraContainerID}}")
+            .addParameter(podName);
+    return goal.executeCommandWithOutput(
+        inspect.getCommand(), is -> new String(is.readAllBytes(), StandardCharsets.UTF_8).strip());
+  }
+
+  @Override
+  public void removePod(String podName) throws MojoExecutionException, IOException {
+    // without --time, each container is stopped within the timeout it was run with
+    goal.executeCommand(
+        new CommandLine(goal)
+            .addCmd("pod")
+            .addCmd("rm")
+            .addParameter("--force")
+            .addParameter(podName));
+  }
+
+  @Override
+  public boolean pullImage(String image) throws MojoExecutionException, IOException {
+    int[] exists = new int[1];
+    goal.executeCommand(
+        new CommandLine(goal).addCmd("image").addCmd("exists").addParameter(image),
+        (exitCode, stderr) -> exists[0] = exitCode);
+    if (exists[0] == 0) {
+      return false;
+    }
+    goal.executeCommand(
+        new CommandLine(goal)
+            .addCmd("image")
+            .addCmd("pull")
+            .addParameter("--quiet")
+            .addParameter(image));
+    return true;
+  }
+
+  @Override
+  public PodmanContainerRun.ImageInspect inspectImage(String image)
+      throws MojoExecutionException, IOException {
+    CommandLine cmdLine =
+        new CommandLine(goal).addCmd("image").addCmd("inspect").addParameter(image);
+    return goal.executeCommandWithOutput(
+        cmdLine.getCommand(),
+        is -> JSON.std.listOfFrom(PodmanContainerRun.ImageInspect.class, is).get(0));
+  }
+
+  @Override
+  public List<PodmanContainerRun.ContainerSummary> listContainers(String containerName)
+      throws MojoExecutionException, IOException {
+    CommandLine cmdLine =
+        new CommandLine(goal)
+            .addCmd("container")
+            .addCmd("ls")
+            .addParameter("--all")
+            .addParameter("--filter")
+            .addParameter("name=" + PodmanContainerRun.namePattern(containerName))
+            .addParameter("--format")
+            .addParameter("json");
+    return goal.executeCommandWithOutput(
+        cmdLine.getCommand(),
+        is -> JSON.std.listOfFrom(PodmanContainerRun.ContainerSummary.class, is));
+  }
+
+  @Override
+  public String runContainer(
+      ContainerConfig containerConfig,
+      String networkName,
+      String podName,
+      Map<String, String> labels,
+      Map<String, String> portToPropertyName)
+      throws MojoExecutionException, IOException {
+    ContainerRunCommandLine runCommandLine = new ContainerRunCommandLine(goal, containerConfig);
+    if (podName != null) {
+      // the pod holds the network and the published ports
+      runCommandLine.addPod(podName).addContainerOptions(null);
+    } else {
+      runCommandLine.addContainerName().addContainerOptions(networkName).addPorts();
+    }
+    runCommandLine
+        .addLabels(labels)
+        .addEnvironment(goal.getLog()::warn)
+        .addDevices(goal.devices)
+        .addMounts()
+        .addContainerCmd();
+
+    String containerId = goal.executeInfoCommand(runCommandLine.getCommand()).strip();
+    portToPropertyName.putAll(runCommandLine.getPortToPropertyName());
+    return containerId;
+  }
+
+  @Override
+  public boolean checkpointContainer(String containerId, Path archive)
+      throws MojoExecutionException, IOException {
+    CommandLine cmdLine =
+        new CommandLine(goal)
+            .addCmd("container")
+            .addCmd("checkpoint")
+            .addParameter("--leave-running")
+            .addParameter("--export")
+            .addParameter(archive.toString())
+            .addParameter(containerId);
+    int[] exit = new int[1];
+    goal.executeCommand(cmdLine, (exitCode, stderr) -> exit[0] = exitCode);
+    return exit[0] == 0;
+  }
+
+  @Override
+  public String restoreContainer(
+      ContainerConfig containerConfig, Path archive, Map<String, String> portToPropertyName)
+      throws MojoExecutionException, IOException {
+    ContainerRestoreCommandLine cmdLine =
+        new ContainerRestoreCommandLine(goal, containerConfig, archive);
+    int[] exit = new int[1];
+    String containerId =
+        goal.executeCommandWithOutput(
+            cmdLine.getCommand(),
+            is -> new String(is.readAllBytes(), StandardCharsets.UTF_8).strip(),
+            (exitCode, stderr) -> exit[0] = exitCode);
+    if (exit[0] != 0) {
+      return null;
+    }
+    portToPropertyName.putAll(cmdLine.getPortToPropertyName());
+    return containerId;
+  }
+
+  @Override
+  public Map<String, Map<String, List<PodmanContainerRun.PortBinding>>> portBindings(
+      List<String> containerIds) throws MojoExecutionException, IOException {
+    CommandLine cmdLine = new CommandLine(goal).addCmd("container").addCmd("inspect");
+    containerIds.forEach(cmdLine::addParameter);
+    return goal.executeCommandWithOutput(cmdLine.getCommand(), InspectPortsReader::read);
+  }
+
+  @Override
+  public void followLogs(String containerId, LogConfig logConfig, Consumer<String> lineConsumer)
+      throws IOException {
+    goal.createProcess(new LogsCommandLine(goal, logConfig, containerId), lineConsumer);
+  }
+
+  @Override
+  public void removeContainer(ContainerConfig containerConfig)
+      throws MojoExecutionException, IOException {
+    goal.executeCommand(new ContainerRmCommandLine(goal, containerConfig));
+  }
+}
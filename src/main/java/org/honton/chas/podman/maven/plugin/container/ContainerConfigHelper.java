@@ -1,14 +1,13 @@
 package org.honton.chas.podman.maven.plugin.container;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
-import lombok.ToString;
 import lombok.experimental.UtilityClass;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.logging.Log;
@@ -17,7 +16,17 @@ import org.honton.chas.podman.maven.plugin.config.ContainerConfig;
 @UtilityClass
 class ContainerConfigHelper {
 
-  public List<ContainerConfig> order(
+  /**
+   * Order containers into start levels. Each container of a level requires only containers of prior
+   * levels.
+   *
+   * @param networkName The network name used to default container names
+   * @param containers Map of alias to container configuration
+   * @param log The maven log
+   * @return The list of start levels
+   * @throws MojoExecutionException when any container is misconfigured
+   */
+  public List<List<ContainerConfig>> order(
       String networkName, Map<String, ContainerConfig> containers, Log log)
       throws MojoExecutionException {
     if (containers == null) {
@@ -25,7 +34,7 @@ class ContainerConfigHelper {
     }
 
     AtomicBoolean failed = new AtomicBoolean();
-    Map<String, RequirementsNode> aliasToNode = new HashMap<>();
+    DependencyGraph<ContainerConfig> graph = new DependencyGraph<>();
     containers.forEach(
         (alias, containerConfig) -> {
           if (containerConfig == null) {
@@ -36,92 +45,59 @@ class ContainerConfigHelper {
             if (containerConfig.name == null) {
               containerConfig.name = networkName + '.' + alias;
             }
-            aliasToNode.put(alias, new RequirementsNode(alias, containerConfig));
+            graph.add(alias, containerConfig, asSet(containerConfig.requires));
           }
         });
     if (failed.get()) {
       throw new MojoExecutionException("containers mis-configured");
     }
 
-    // fill out dependents
-    aliasToNode.forEach(
-        (alias, node) ->
-            node.requires.forEach(
-                require -> {
-                  RequirementsNode requirements = aliasToNode.get(require);
-                  if (requirements == null) {
-                    throw new IllegalArgumentException(
-                        "Missing definition for require " + require + " on release " + alias);
-                  }
-                  requirements.addDependent(require, node);
-                }));
-
-    List<ContainerConfig> releaseOrder = new ArrayList<>();
-    while (!aliasToNode.isEmpty()) {
-      List<RequirementsNode> solved =
-          aliasToNode.values().stream()
-              .filter(RequirementsNode::isSolved)
-              .collect(Collectors.toList());
-
-      if (log.isDebugEnabled()) {
-        solved.forEach(node -> log.debug("Solved: " + node));
-      }
-
-      if (solved.isEmpty()) {
-        throw new IllegalArgumentException(
-            "Could not determine container ordering for: "
-                + String.join(", ", aliasToNode.keySet()));
+    List<List<ContainerConfig>> levels = graph.levels();
+    if (log.isDebugEnabled()) {
+      for (int i = 0; i < levels.size(); ++i) {
+        log.debug(
+            "Level "
+                + i
+                + ": "
+                + levels.get(i).stream().map(c -> c.alias).collect(Collectors.joining(", ")));
       }
-
-      solved.forEach(
-          requirement -> {
-            releaseOrder.add(requirement.containerConfig);
-            aliasToNode.remove(requirement.alias);
-            requirement.removeRequiresFromDependents();
-          });
+      log.debug("Critical path: " + String.join(" -> ", graph.criticalPath(alias -> 1)));
     }
-    return releaseOrder;
+    return levels;
   }
 
-  @ToString(of = {"alias", "requires"})
-  private static class RequirementsNode {
-
-    final String alias;
-    final ContainerConfig containerConfig;
-
-    /** The containers that this container requires before deployment */
-    final Set<String> requires;
-
-    /** The containers that depend upon this container */
-    final Map<String, RequirementsNode> depends;
-
-    public RequirementsNode(String alias, ContainerConfig containerConfig) {
-      this.alias = alias;
-      this.containerConfig = containerConfig;
-      this.requires = asSet(containerConfig.requires);
-      depends = new HashMap<>();
-    }
-
-    private static Set<String> asSet(String commaSeparated) {
-      return commaSeparated == null
-          ? Set.of()
-          : Arrays.stream(commaSeparated.split(",")).map(String::strip).collect(Collectors.toSet());
-    }
-
-    public boolean isSolved() {
-      return requires.isEmpty();
-    }
-
-    void removeRequiresFromDependents() {
-      depends.values().forEach(dependent -> dependent.removeRequirement(alias));
-    }
-
-    private void removeRequirement(String name) {
-      requires.remove(name);
+  /**
+   * Verify that no two containers publish the same container port. Containers of a pod share one
+   * network namespace, so each port can be published only once.
+   *
+   * @param levels The containers of the pod
+   * @throws MojoExecutionException when a port is published by more than one container
+   */
+  public void checkPodPorts(List<List<ContainerConfig>> levels) throws MojoExecutionException {
+    Map<String, String> portToAlias = new HashMap<>();
+    for (List<ContainerConfig> level : levels) {
+      for (ContainerConfig containerConfig : level) {
+        if (containerConfig.ports == null) {
+          continue;
+        }
+        for (String port : containerConfig.ports.values()) {
+          String key = PublishedPort.parse(port).toString();
+          String prior = portToAlias.putIfAbsent(key, containerConfig.alias);
+          if (prior != null) {
+            throw new MojoExecutionException(
+                "Port " + key + " is published by both " + prior + " and " + containerConfig.alias);
+          }
+        }
+      }
     }
+  }
 
-    public void addDependent(String name, RequirementsNode value) {
-      depends.put(name, value);
-    }
+  private static Set<String> asSet(String commaSeparated) {
+    return commaSeparated == null
+        ? Set.of()
+        : Arrays.stream(commaSeparated.split(","))
+            .map(String::strip)
+            .filter(s -> !s.isEmpty())
+            .collect(Collectors.toCollection(LinkedHashSet::new));
   }
 }
@@ -0,0 +1,147 @@
+package org.honton.chas.podman.maven.plugin.container;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.honton.chas.podman.maven.plugin.config.ContainerConfig;
+import org.honton.chas.podman.maven.plugin.config.LogConfig;
+
+/** Operations upon networks and containers */
+interface ContainerEngine {
+
+  /**
+   * Create a network, if it does not already exist
+   *
+   * @param networkName The network name
+   * @param driver The network driver, or null for default
+   */
+  void createNetwork(String networkName, String driver) throws MojoExecutionException, IOException;
+
+  /**
+   * Remove a network
+   *
+   * @param networkName The network name
+   */
+  void removeNetwork(String networkName) throws MojoExecutionException, IOException;
+
+  /**
+   * Create a pod whose containers share one network namespace, and start its infra container. The
+   * pod publishes the ports of all its containers, and resolves each container alias to localhost.
+   *
+   * @param podName The pod name
+   * @param containerConfigs The configurations of the containers which will join the pod
+   * @param portToPropertyName Receives the container port/protocol of each dynamically assigned
+   *     host port, mapped to the maven property name which receives the host port
+   * @return The id of the infra container, which holds the published ports
+   */
+  String createPod(
+      String podName,
+      Collection<ContainerConfig> containerConfigs,
+      Map<String, String> portToPropertyName)
+      throws MojoExecutionException, IOException;
+
+  /**
+   * Remove a pod and its containers, stopping each container within its own stop timeout
+   *
+   * @param podName The pod name
+   */
+  void removePod(String podName) throws MojoExecutionException, IOException;
+
+  /**
+   * Pull an image, if not already present
+   *
+   * @param image The image reference
+   * @return true if the image was pulled; false if already present
+   */
+  boolean pullImage(String image) throws MojoExecutionException, IOException;
+
+  /**
+   * Inspect a local image
+   *
+   * @param image The image reference
+   * @return The id and size of the image
+   */
+  PodmanContainerRun.ImageInspect inspectImage(String image)
+      throws MojoExecutionException, IOException;
+
+  /**
+   * List containers, running or not, with a name
+   *
+   * @param containerName The container name
+   * @return The summaries of the containers
+   */
+  List<PodmanContainerRun.ContainerSummary> listContainers(String containerName)
+      throws MojoExecutionException, IOException;
+
+  /**
+   * Create and start a container
+   *
+   * @param containerConfig The container configuration
+   * @param networkName The network the container joins, unless it joins a pod
+   * @param podName The pod the container joins, or null to join the network
+   * @param labels The labels of the container
+   * @param portToPropertyName Receives the container port/protocol of each dynamically assigned
+   *     host port, mapped to the maven property name which receives the host port
+   * @return The container id
+   */
+  String runContainer(
+      ContainerConfig containerConfig,
+      String networkName,
+      String podName,
+      Map<String, String> labels,
+      Map<String, String> portToPropertyName)
+      throws MojoExecutionException, IOException;
+
+  /**
+   * Export a checkpoint of a running container, leaving the container running
+   *
+   * @param containerId The container id
+   * @param archive The file which receives the checkpoint
+   * @return true if the checkpoint was exported
+   */
+  boolean checkpointContainer(String containerId, Path archive)
+      throws MojoExecutionException, IOException;
+
+  /**
+   * Create and start a container from a checkpoint
+   *
+   * @param containerConfig The container configuration
+   * @param archive The checkpoint
+   * @param portToPropertyName Receives the container port/protocol of each dynamically assigned
+   *     host port, mapped to the maven property name which receives the host port
+   * @return The container id, or null if the container could not be restored
+   */
+  String restoreContainer(
+      ContainerConfig containerConfig, Path archive, Map<String, String> portToPropertyName)
+      throws MojoExecutionException, IOException;
+
+  /**
+   * Inspect the port bindings of containers
+   *
+   * @param containerIds The container ids
+   * @return Map of container id to map of container port/protocol to host bindings
+   */
+  Map<String, Map<String, List<PodmanContainerRun.PortBinding>>> portBindings(
+      List<String> containerIds) throws MojoExecutionException, IOException;
+
+  /**
+   * Follow the container log in the background
+   *
+   * @param containerId The container id
+   * @param logConfig The log configuration
+   * @param lineConsumer Consumer of each log line; closed at end of log if Closeable
+   */
+  void followLogs(String containerId, LogConfig logConfig, Consumer<String> lineConsumer)
+      throws MojoExecutionException, IOException;
+
+  /**
+   * Remove a container, stopping it if needed
+   *
+   * @param containerConfig The container configuration
+   */
+  void removeContainer(ContainerConfig containerConfig) throws MojoExecutionException, IOException;
+}
@@ -0,0 +1,85 @@
+package org.honton.chas.podman.maven.plugin.container;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.UnaryOperator;
+import org.honton.chas.podman.maven.plugin.Digests;
+import org.honton.chas.podman.maven.plugin.config.ContainerConfig;
+import org.honton.chas.podman.maven.plugin.config.DeviceMountConfig;
+
+/**
+ * Fingerprint of the effective configuration of a container. A reusable container is labelled with
+ * its fingerprint, so that a later build can tell whether the running container is the one it would
+ * create.
+ */
+final class ContainerFingerprint {
+
+  /**
+   * The label which holds the fingerprint. It differs from the image fingerprint label, which every
+   * container of a built image inherits.
+   */
+  static final String LABEL = "org.honton.chas.podman.container-fingerprint";
+
+  private ContainerFingerprint() {}
+
+  /**
+   * Compute the fingerprint of a container configuration
+   *
+   * @param containerConfig The container configuration
+   * @param networkName The network the container joins
+   * @param imageId The id of the local image which the container would run
+   * @param devices The devices mapped into every container, may be null
+   * @param properties Lookup of maven property values; supplies the configured host ports
+   * @return The hex encoded fingerprint
+   */
+  static String of(
+      ContainerConfig containerConfig,
+      String networkName,
+      String imageId,
+      List<DeviceMountConfig> devices,
+      UnaryOperator<String> properties)
+      throws IOException {
+    Digests.Combiner combiner =
+        new Digests.Combiner()
+            .add(imageId)
+            .add(containerConfig.image)
+            .add(containerConfig.name)
+            .add(containerConfig.alias)
+            .add(networkName)
+            .add(containerConfig.memory)
+            .add(containerConfig.memorySwap)
+            .add(containerConfig.entrypoint)
+            .add(containerConfig.cmd)
+            .add(containerConfig.args)
+            .add(containerConfig.stopSignal)
+            .add(String.valueOf(containerConfig.stopTimeout))
+            .add(containerConfig.env);
+    addFile(combiner, containerConfig.envFile)
+        .add(String.valueOf(containerConfig.mounts))
+        .add(String.valueOf(devices));
+
+    // a host port set by property is part of the configuration; an assigned port is not
+    Map<String, String> ports = new TreeMap<>();
+    if (containerConfig.ports != null) {
+      containerConfig.ports.forEach(
+          (name, port) -> {
+            String host = properties.apply(name);
+            ports.put(name, (host != null ? host : "") + ':' + port);
+          });
+    }
+    return combiner.add(ports).digest();
+  }
+
+  /** Add the content of a file, if readable, then its name */
+  private static Digests.Combiner addFile(Digests.Combiner combiner, String file)
+      throws IOException {
+    if (file != null && Files.isReadable(Path.of(file))) {
+      combiner.addContent(Files.readAllBytes(Path.of(file)));
+    }
+    return combiner.add(file);
+  }
+}
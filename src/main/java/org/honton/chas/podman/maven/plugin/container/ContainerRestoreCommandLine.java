@@ -0,0 +1,24 @@
+package org.honton.chas.podman.maven.plugin.container;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Getter;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.honton.chas.podman.maven.plugin.cmdline.CommandLine;
+import org.honton.chas.podman.maven.plugin.config.ContainerConfig;
+
+class ContainerRestoreCommandLine extends CommandLine {
+  @Getter private final Map<String, String> portToPropertyName = new HashMap<>();
+
+  ContainerRestoreCommandLine(PodmanContainer goal, ContainerConfig containerConfig, Path archive)
+      throws MojoExecutionException {
+    super(goal);
+    addCmd("container");
+    addCmd("restore");
+    addParameter("--import").addParameter(archive.toString());
+    addParameter("--name").addParameter(containerConfig.name);
+    // host ports are assigned anew, as for container run
+    ContainerRunCommandLine.addPublish(this, goal, containerConfig, portToPropertyName);
+  }
+}
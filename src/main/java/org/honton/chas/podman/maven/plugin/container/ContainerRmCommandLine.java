@@ -5,11 +5,14 @@ import org.honton.chas.podman.maven.plugin.config.ContainerConfig;
 
 class ContainerRmCommandLine extends CommandLine {
 
-  ContainerRmCommandLine(PodmanContainerRm goal, ContainerConfig containerConfig) {
+  ContainerRmCommandLine(PodmanContainer goal, ContainerConfig containerConfig) {
     super(goal);
     addCmd("container");
     addCmd("rm");
     addParameter("-f");
+    if (containerConfig.stopTimeout != null) {
+      addParameter("--time").addParameter(containerConfig.stopTimeout.toString());
+    }
     addParameter(goal.containerId(containerConfig));
   }
 }
@@ -22,10 +22,10 @@ import org.honton.chas.podman.maven.plugin.config.VolumeMountConfig;
 
 class ContainerRunCommandLine extends CommandLine {
   private final ContainerConfig containerConfig;
-  private final PodmanContainerRun goal;
-  @Getter private final Map<Integer, String> portToPropertyName = new HashMap<>();
+  private final PodmanContainer goal;
+  @Getter private final Map<String, String> portToPropertyName = new HashMap<>();
 
-  ContainerRunCommandLine(PodmanContainerRun goal, ContainerConfig containerConfig) {
+  ContainerRunCommandLine(PodmanContainer goal, ContainerConfig containerConfig) {
     super(goal);
     addCmd("container");
     addCmd("run");
@@ -56,6 +56,14 @@ class ContainerRunCommandLine extends CommandLine {
     return this;
   }
 
+  ContainerRunCommandLine addPod(String pod) {
+    addParameter("--name");
+    addParameter(containerConfig.name);
+    addParameter("--pod");
+    addParameter(pod);
+    return this;
+  }
+
   ContainerRunCommandLine addContainerCmd() throws MojoExecutionException {
     if (containerConfig.image == null) {
       throw new MojoExecutionException("Missing image for container " + containerConfig.alias);
@@ -72,7 +80,9 @@ class ContainerRunCommandLine extends CommandLine {
   }
 
   ContainerRunCommandLine addContainerOptions(String network) {
-    addParameter("--network").addParameter(network);
+    if (network != null) {
+      addParameter("--network").addParameter(network);
+    }
 
     if (containerConfig.memory != null) {
       addParameter("--memory").addParameter(containerConfig.memory);
@@ -84,6 +94,18 @@ class ContainerRunCommandLine extends CommandLine {
     if (containerConfig.entrypoint != null) {
       addParameter("--entrypoint").addParameter(containerConfig.entrypoint);
     }
+
+    if (containerConfig.stopSignal != null) {
+      addParameter("--stop-signal").addParameter(containerConfig.stopSignal);
+    }
+    if (containerConfig.stopTimeout != null) {
+      addParameter("--stop-timeout").addParameter(containerConfig.stopTimeout.toString());
+    }
+    return this;
+  }
+
+  ContainerRunCommandLine addLabels(Map<String, String> labels) {
+    labels.forEach((k, v) -> addParameter("--label").addParameter(k + '=' + v));
     return this;
   }
 
@@ -116,22 +138,25 @@ class ContainerRunCommandLine extends CommandLine {
     return options.toString();
   }
 
-  public ContainerRunCommandLine addDevices(List<DeviceMountConfig> devices) {
-    if (devices != null) {
-      for (DeviceMountConfig config : devices) {
-        StringBuilder sb = new StringBuilder().append(config.source);
+  static String deviceSpecification(DeviceMountConfig config) {
+    StringBuilder sb = new StringBuilder().append(config.source);
 
-        if (config.destination != null && !config.destination.equals(config.source)) {
-          sb.append(':').append(config.destination);
-        }
+    if (config.destination != null && !config.destination.equals(config.source)) {
+      sb.append(':').append(config.destination);
+    }
 
-        String ops = getMountOptions(config);
-        boolean needOpts = !ops.equals("rwm");
-        if (needOpts) {
-          sb.append(':').append(ops);
-        }
+    String ops = getMountOptions(config);
+    boolean needOpts = !ops.equals("rwm");
+    if (needOpts) {
+      sb.append(':').append(ops);
+    }
+    return sb.toString();
+  }
 
-        addParameter("--device").addParameter(sb.toString());
+  public ContainerRunCommandLine addDevices(List<DeviceMountConfig> devices) {
+    if (devices != null) {
+      for (DeviceMountConfig config : devices) {
+        addParameter("--device").addParameter(deviceSpecification(config));
       }
     }
     return this;
@@ -159,11 +184,7 @@ class ContainerRunCommandLine extends CommandLine {
   private void addBinds(List<BindMountConfig> binds) throws IOException {
     if (binds != null) {
       for (BindMountConfig bindMount : binds) {
-
-        Path path = Path.of(bindMount.source);
-        if (Files.notExists(path)) {
-          createDirs(path, getFileAttributes(bindMount.permissions));
-        }
+        createBindSource(bindMount);
 
         StringBuilder sb =
             new StringBuilder().append(bindMount.source).append(':').append(bindMount.destination);
@@ -175,6 +196,13 @@ class ContainerRunCommandLine extends CommandLine {
     }
   }
 
+  static void createBindSource(BindMountConfig bindMount) throws IOException {
+    Path path = Path.of(bindMount.source);
+    if (Files.notExists(path)) {
+      createDirs(path, getFileAttributes(bindMount.permissions));
+    }
+  }
+
   private static void createDirs(Path path, Set<PosixFilePermission> fileAttributes)
       throws IOException {
     Path parent = path.getParent();
@@ -187,7 +215,7 @@ class ContainerRunCommandLine extends CommandLine {
     }
   }
 
-  private Set<PosixFilePermission> getFileAttributes(String permissions) {
+  private static Set<PosixFilePermission> getFileAttributes(String permissions) {
     if (permissions == null) {
       return Set.of();
     }
@@ -213,20 +241,38 @@ class ContainerRunCommandLine extends CommandLine {
     }
   }
 
-  ContainerRunCommandLine addPorts() {
-    if (containerConfig.ports != null) {
-      containerConfig.ports.forEach(this::addPort);
-    }
+  ContainerRunCommandLine addPorts() throws MojoExecutionException {
+    addPublish(this, goal, containerConfig, portToPropertyName);
     return this;
   }
 
-  private void addPort(String mavenPropertyName, Integer containerPort) {
-    String hostPortAndInterface = goal.lookupProperty(mavenPropertyName);
-    if (hostPortAndInterface == null) {
-      hostPortAndInterface = "";
-      goal.setProperty(mavenPropertyName, hostPortAndInterface);
-      portToPropertyName.put(containerPort, mavenPropertyName);
+  /**
+   * Add the --publish parameters of a container
+   *
+   * @param cmdLine The command line which receives the parameters
+   * @param goal The goal, which holds the maven properties
+   * @param containerConfig The container configuration
+   * @param portToPropertyName Receives the container port/protocol of each dynamically assigned
+   *     host port, mapped to the maven property name which receives the host port
+   */
+  static void addPublish(
+      CommandLine cmdLine,
+      PodmanContainer goal,
+      ContainerConfig containerConfig,
+      Map<String, String> portToPropertyName)
+      throws MojoExecutionException {
+    if (containerConfig.ports != null) {
+      for (Map.Entry<String, String> entry : containerConfig.ports.entrySet()) {
+        String mavenPropertyName = entry.getKey();
+        PublishedPort containerPort = PublishedPort.parse(entry.getValue());
+        String hostPortAndInterface = goal.getProperty(mavenPropertyName);
+        if (hostPortAndInterface == null) {
+          hostPortAndInterface = "";
+          goal.setProperty(mavenPropertyName, hostPortAndInterface);
+          portToPropertyName.put(containerPort.toString(), mavenPropertyName);
+        }
+        cmdLine.addParameter("--publish").addParameter(hostPortAndInterface + ':' + containerPort);
+      }
     }
-    addParameter("--publish").addParameter(hostPortAndInterface + ':' + containerPort);
   }
 }
@@ -0,0 +1,273 @@
+package org.honton.chas.podman.maven.plugin.container;
+
+import com.fasterxml.jackson.jr.ob.JSON;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import lombok.Getter;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.honton.chas.podman.maven.plugin.config.BindMountConfig;
+import org.honton.chas.podman.maven.plugin.config.ContainerConfig;
+import org.honton.chas.podman.maven.plugin.config.DeviceMountConfig;
+import org.honton.chas.podman.maven.plugin.config.TempFsMountConfig;
+import org.honton.chas.podman.maven.plugin.config.VolumeMountConfig;
+
+/** The libpod container create specification; the REST equivalent of ContainerRunCommandLine */
+class ContainerSpec {
+
+  private static final Map<String, Integer> SIGNALS =
+      Map.of(
+          "HUP", 1, "INT", 2, "QUIT", 3, "KILL", 9, "USR1", 10, "USR2", 12, "TERM", 15, "STOP", 19);
+
+  private final ContainerConfig containerConfig;
+  private final PodmanContainer goal;
+  @Getter private final Map<String, Object> spec = new LinkedHashMap<>();
+  @Getter private final Map<String, String> portToPropertyName = new HashMap<>();
+
+  ContainerSpec(PodmanContainer goal, ContainerConfig containerConfig) {
+    this.containerConfig = containerConfig;
+    this.goal = goal;
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<Object> list(String key) {
+    return (List<Object>) spec.computeIfAbsent(key, k -> new ArrayList<>());
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<String, Object> map(Map<String, Object> parent, String key) {
+    return (Map<String, Object>) parent.computeIfAbsent(key, k -> new LinkedHashMap<>());
+  }
+
+  ContainerSpec addContainerName(String networkName) {
+    spec.put("name", containerConfig.name);
+    spec.put("netns", Map.of("nsmode", "bridge"));
+    Map<String, Object> options = map(map(spec, "Networks"), networkName);
+    if (!containerConfig.alias.equals(containerConfig.name)) {
+      options.put("aliases", List.of(containerConfig.alias));
+    }
+    return this;
+  }
+
+  ContainerSpec addPod(String pod) {
+    spec.put("name", containerConfig.name);
+    spec.put("pod", pod);
+    return this;
+  }
+
+  ContainerSpec addContainerCmd() throws MojoExecutionException {
+    if (containerConfig.image == null) {
+      throw new MojoExecutionException("Missing image for container " + containerConfig.alias);
+    }
+    spec.put("image", containerConfig.image);
+
+    List<String> command = new ArrayList<>();
+    if (containerConfig.cmd != null) {
+      command.add(containerConfig.cmd);
+    }
+    if (containerConfig.args != null) {
+      command.addAll(containerConfig.args);
+    }
+    if (!command.isEmpty()) {
+      spec.put("command", command);
+    }
+    return this;
+  }
+
+  ContainerSpec addContainerOptions() throws MojoExecutionException, IOException {
+    Map<String, Object> memory = new LinkedHashMap<>();
+    if (containerConfig.memory != null) {
+      memory.put("limit", toBytes(containerConfig.memory));
+    }
+    if (containerConfig.memorySwap != null) {
+      memory.put("swap", toBytes(containerConfig.memorySwap));
+    }
+    if (!memory.isEmpty()) {
+      spec.put("resource_limits", Map.of("memory", memory));
+    }
+
+    if (containerConfig.entrypoint != null) {
+      spec.put(
+          "entrypoint",
+          containerConfig.entrypoint.startsWith("[")
+              ? JSON.std.listFrom(containerConfig.entrypoint)
+              : List.of(containerConfig.entrypoint));
+    }
+
+    if (containerConfig.stopSignal != null) {
+      spec.put("stop_signal", toSignal(containerConfig.stopSignal));
+    }
+    if (containerConfig.stopTimeout != null) {
+      spec.put("stop_timeout", containerConfig.stopTimeout);
+    }
+    return this;
+  }
+
+  ContainerSpec addLabels(Map<String, String> labels) {
+    if (!labels.isEmpty()) {
+      spec.put("labels", labels);
+    }
+    return this;
+  }
+
+  static long toBytes(String memory) throws MojoExecutionException {
+    String value = memory.strip().toLowerCase(Locale.ROOT);
+    // a unit suffix of b, k, m or g is a power of 1024
+    int unit = "bkmg".indexOf(value.charAt(value.length() - 1));
+    if (unit >= 0) {
+      value = value.substring(0, value.length() - 1);
+    }
+    try {
+      return Long.parseLong(value) << (Math.max(unit, 0) * 10);
+    } catch (NumberFormatException e) {
+      throw new MojoExecutionException("Invalid memory limit " + memory);
+    }
+  }
+
+  static int toSignal(String signal) throws MojoExecutionException {
+    String name = signal.strip().toUpperCase(Locale.ROOT);
+    if (name.startsWith("SIG")) {
+      name = name.substring(3);
+    }
+    Integer number = SIGNALS.get(name);
+    if (number != null) {
+      return number;
+    }
+    try {
+      return Integer.parseInt(name);
+    } catch (NumberFormatException e) {
+      throw new MojoExecutionException("Unsupported stop signal " + signal);
+    }
+  }
+
+  ContainerSpec addEnvironment(Consumer<String> warn) throws IOException {
+    Map<String, String> env = new LinkedHashMap<>();
+    if (containerConfig.envFile != null) {
+      Path envFile = Path.of(containerConfig.envFile);
+      if (Files.isReadable(envFile)) {
+        readEnvFile(envFile, env);
+      } else {
+        warn.accept("ignoring env file " + containerConfig.envFile);
+      }
+    }
+    if (containerConfig.env != null) {
+      env.putAll(containerConfig.env);
+    }
+    if (!env.isEmpty()) {
+      spec.put("env", env);
+    }
+    return this;
+  }
+
+  private static void readEnvFile(Path envFile, Map<String, String> env) throws IOException {
+    for (String line : Files.readAllLines(envFile, StandardCharsets.UTF_8)) {
+      String entry = line.strip();
+      if (entry.isEmpty() || entry.startsWith("#")) {
+        continue;
+      }
+      int equals = entry.indexOf('=');
+      if (equals > 0) {
+        env.put(entry.substring(0, equals), entry.substring(equals + 1));
+      } else {
+        // name only, value from host environment
+        String value = System.getenv(entry);
+        if (value != null) {
+          env.put(entry, value);
+        }
+      }
+    }
+  }
+
+  ContainerSpec addDevices(List<DeviceMountConfig> devices) {
+    if (devices != null) {
+      for (DeviceMountConfig config : devices) {
+        list("devices").add(Map.of("path", ContainerRunCommandLine.deviceSpecification(config)));
+      }
+    }
+    return this;
+  }
+
+  ContainerSpec addMounts() throws IOException {
+    if (containerConfig.mounts != null) {
+      addBinds(containerConfig.mounts.binds);
+      addTemps(containerConfig.mounts.temps);
+      addVolumes(containerConfig.mounts.volumes);
+    }
+    return this;
+  }
+
+  private void addBinds(List<BindMountConfig> binds) throws IOException {
+    if (binds != null) {
+      for (BindMountConfig bindMount : binds) {
+        ContainerRunCommandLine.createBindSource(bindMount);
+        Map<String, Object> mount = new LinkedHashMap<>();
+        mount.put("destination", bindMount.destination);
+        mount.put("type", "bind");
+        mount.put("source", bindMount.source);
+        mount.put("options", bindMount.readonly ? List.of("rbind", "ro") : List.of("rbind"));
+        list("mounts").add(mount);
+      }
+    }
+  }
+
+  private void addTemps(List<TempFsMountConfig> temps) {
+    if (temps != null) {
+      for (TempFsMountConfig tempFsMount : temps) {
+        list("mounts")
+            .add(
+                Map.of("destination", tempFsMount.destination, "type", "tmpfs", "source", "tmpfs"));
+      }
+    }
+  }
+
+  private void addVolumes(List<VolumeMountConfig> volumes) {
+    if (volumes != null) {
+      for (VolumeMountConfig volumeMount : volumes) {
+        Map<String, Object> volume = new LinkedHashMap<>();
+        volume.put("Name", volumeMount.source);
+        volume.put("Dest", volumeMount.destination);
+        if (volumeMount.readonly) {
+          volume.put("Options", List.of("ro"));
+        }
+        list("volumes").add(volume);
+      }
+    }
+  }
+
+  ContainerSpec addPorts() throws MojoExecutionException {
+    if (containerConfig.ports != null) {
+      for (Map.Entry<String, String> entry : containerConfig.ports.entrySet()) {
+        addPort(entry.getKey(), PublishedPort.parse(entry.getValue()));
+      }
+    }
+    return this;
+  }
+
+  private void addPort(String mavenPropertyName, PublishedPort containerPort) {
+    String hostPortAndInterface = goal.getProperty(mavenPropertyName);
+    if (hostPortAndInterface == null) {
+      hostPortAndInterface = "";
+      goal.setProperty(mavenPropertyName, hostPortAndInterface);
+      portToPropertyName.put(containerPort.toString(), mavenPropertyName);
+    }
+
+    Map<String, Object> mapping = new LinkedHashMap<>();
+    mapping.put("container_port", containerPort.port);
+    int colon = hostPortAndInterface.lastIndexOf(':');
+    if (colon >= 0) {
+      mapping.put("host_ip", hostPortAndInterface.substring(0, colon));
+    }
+    String hostPort = hostPortAndInterface.substring(colon + 1);
+    mapping.put("host_port", hostPort.isEmpty() ? 0 : Integer.parseInt(hostPort));
+    mapping.put("protocol", containerPort.protocol);
+    list("portmappings").add(mapping);
+  }
+}
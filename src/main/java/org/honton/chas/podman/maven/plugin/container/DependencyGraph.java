@@ -0,0 +1,215 @@
+package org.honton.chas.podman.maven.plugin.container;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Graph of named nodes and the nodes each requires. Nodes are ordered with Kahn's algorithm: each
+ * node counts its unmet requirements, and a node joins the next level once its count reaches zero,
+ * so ordering is linear in the number of nodes and requirements.
+ *
+ * @param <T> The type of value held by each node
+ */
+final class DependencyGraph<T> {
+
+  private final List<String> names = new ArrayList<>();
+  private final List<T> values = new ArrayList<>();
+  private final List<Set<String>> requirements = new ArrayList<>();
+  private final Map<String, Integer> index = new HashMap<>();
+
+  // resolved on first use
+  private int[][] requires;
+  private int[] topological;
+
+  /**
+   * Add a node
+   *
+   * @param name The unique node name
+   * @param value The value of the node
+   * @param requires The names of the nodes which must precede this node
+   * @return this
+   */
+  DependencyGraph<T> add(String name, T value, Collection<String> requires) {
+    if (index.putIfAbsent(name, names.size()) != null) {
+      throw new IllegalArgumentException("Duplicate definition of " + name);
+    }
+    names.add(name);
+    values.add(value);
+    requirements.add(new LinkedHashSet<>(requires));
+    this.requires = null;
+    return this;
+  }
+
+  /**
+   * Group the nodes into levels. Each node of a level requires only nodes of prior levels. Within a
+   * level, nodes are in the order added.
+   *
+   * @return The values of each level
+   * @throws IllegalArgumentException when a requirement is not defined, or requirements form a
+   *     cycle
+   */
+  List<List<T>> levels() {
+    resolve();
+    List<List<T>> levels = new ArrayList<>();
+    int[] level = levelOf();
+    for (int node = 0; node < level.length; ++node) {
+      while (levels.size() <= level[node]) {
+        levels.add(new ArrayList<>());
+      }
+      levels.get(level[node]).add(values.get(node));
+    }
+    return levels;
+  }
+
+  /**
+   * Find the chain of requirements with the greatest total weight. This is the chain which bounds
+   * how quickly all nodes can be started.
+   *
+   * @param weight The weight of each node, such as its expected start time
+   * @return The names of the nodes in the chain, first required to last
+   * @throws IllegalArgumentException when a requirement is not defined, or requirements form a
+   *     cycle
+   */
+  List<String> criticalPath(ToLongFunction<String> weight) {
+    resolve();
+    int size = names.size();
+    long[] total = new long[size];
+    int[] previous = new int[size];
+    int last = -1;
+    for (int node : topological) {
+      previous[node] = -1;
+      long prior = 0;
+      for (int required : requires[node]) {
+        if (total[required] > prior || previous[node] < 0) {
+          prior = total[required];
+          previous[node] = required;
+        }
+      }
+      total[node] = prior + weight.applyAsLong(names.get(node));
+      if (last < 0 || total[node] > total[last]) {
+        last = node;
+      }
+    }
+
+    List<String> path = new ArrayList<>();
+    for (int node = last; node >= 0; node = previous[node]) {
+      path.add(names.get(node));
+    }
+    Collections.reverse(path);
+    return path;
+  }
+
+  /** The level of each node; computed in topological order, so requirements are already known */
+  private int[] levelOf() {
+    int[] level = new int[names.size()];
+    for (int node : topological) {
+      for (int required : requires[node]) {
+        level[node] = Math.max(level[node], level[required] + 1);
+      }
+    }
+    return level;
+  }
+
+  private void resolve() {
+    if (requires != null) {
+      return;
+    }
+    int size = names.size();
+    int[][] required = new int[size][];
+    int[] dependentCount = new int[size];
+    for (int node = 0; node < size; ++node) {
+      int[] edges = new int[requirements.get(node).size()];
+      int e = 0;
+      for (String requirement : requirements.get(node)) {
+        Integer r = index.get(requirement);
+        if (r == null) {
+          throw new IllegalArgumentException(
+              "Missing definition for require " + requirement + " on " + names.get(node));
+        }
+        edges[e++] = r;
+        ++dependentCount[r];
+      }
+      required[node] = edges;
+    }
+
+    int[][] dependent = new int[size][];
+    for (int node = 0; node < size; ++node) {
+      dependent[node] = new int[dependentCount[node]];
+      dependentCount[node] = 0;
+    }
+    for (int node = 0; node < size; ++node) {
+      for (int r : required[node]) {
+        dependent[r][dependentCount[r]++] = node;
+      }
+    }
+
+    // Kahn's algorithm
+    int[] unmet = new int[size];
+    int[] order = new int[size];
+    int head = 0;
+    int tail = 0;
+    for (int node = 0; node < size; ++node) {
+      unmet[node] = required[node].length;
+      if (unmet[node] == 0) {
+        order[tail++] = node;
+      }
+    }
+    while (head < tail) {
+      int node = order[head++];
+      for (int d : dependent[node]) {
+        if (--unmet[d] == 0) {
+          order[tail++] = d;
+        }
+      }
+    }
+    if (tail < size) {
+      throw new IllegalArgumentException(
+          "Requirements form a cycle: " + String.join(" -> ", findCycle(required, unmet)));
+    }
+
+    requires = required;
+    topological = order;
+  }
+
+  /**
+   * Find one cycle among the nodes which still have unmet requirements. Each such node requires
+   * another such node, so following unmet requirements must eventually revisit a node.
+   *
+   * @return The names around the cycle, with the first name repeated at the end
+   */
+  private List<String> findCycle(int[][] required, int[] unmet) {
+    int start = 0;
+    while (unmet[start] == 0) {
+      ++start;
+    }
+    Map<Integer, Integer> position = new HashMap<>();
+    Deque<Integer> path = new ArrayDeque<>();
+    int node = start;
+    while (!position.containsKey(node)) {
+      position.put(node, path.size());
+      path.addLast(node);
+      int next = -1;
+      for (int r : required[node]) {
+        if (unmet[r] > 0) {
+          next = r;
+          break;
+        }
+      }
+      node = next;
+    }
+    List<String> cycle =
+        path.stream().skip(position.get(node)).map(names::get).collect(Collectors.toList());
+    cycle.add(names.get(node));
+    return cycle;
+  }
+}
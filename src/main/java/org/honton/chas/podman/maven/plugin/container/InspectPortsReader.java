@@ -0,0 +1,122 @@
+package org.honton.chas.podman.maven.plugin.container;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.jr.ob.JSON;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming reader of <code>podman container inspect</code> output. Only the container id and the
+ * host config port bindings are materialized; every other value is skipped without being bound.
+ */
+final class InspectPortsReader {
+
+  private InspectPortsReader() {}
+
+  /**
+   * Read the port bindings of each inspected container
+   *
+   * @param is The inspect output, a json array of container objects
+   * @return Map of container id to map of container port/protocol to host bindings
+   */
+  static Map<String, Map<String, List<PodmanContainerRun.PortBinding>>> read(InputStream is)
+      throws IOException {
+    Map<String, Map<String, List<PodmanContainerRun.PortBinding>>> containers =
+        new LinkedHashMap<>();
+    try (JsonParser parser = JSON.std.createParser(is)) {
+      JsonToken token = parser.nextToken();
+      if (token == null) {
+        return containers;
+      }
+      if (token != JsonToken.START_ARRAY) {
+        throw new IOException("expected array of containers, found " + token);
+      }
+      while (parser.nextToken() == JsonToken.START_OBJECT) {
+        readContainer(parser, containers);
+      }
+    }
+    return containers;
+  }
+
+  private static void readContainer(
+      JsonParser parser, Map<String, Map<String, List<PodmanContainerRun.PortBinding>>> containers)
+      throws IOException {
+    String id = null;
+    Map<String, List<PodmanContainerRun.PortBinding>> portBindings = Map.of();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.getCurrentName();
+      JsonToken value = parser.nextToken();
+      if (name.equals("Id") && value == JsonToken.VALUE_STRING) {
+        id = parser.getText();
+      } else if (name.equals("HostConfig") && value == JsonToken.START_OBJECT) {
+        portBindings = readHostConfig(parser);
+      } else {
+        parser.skipChildren();
+      }
+    }
+    if (id != null) {
+      containers.put(id, portBindings);
+    }
+  }
+
+  private static Map<String, List<PodmanContainerRun.PortBinding>> readHostConfig(JsonParser parser)
+      throws IOException {
+    Map<String, List<PodmanContainerRun.PortBinding>> portBindings = Map.of();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.getCurrentName();
+      if (parser.nextToken() == JsonToken.START_OBJECT && name.equals("PortBindings")) {
+        portBindings = readPortBindings(parser);
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return portBindings;
+  }
+
+  private static Map<String, List<PodmanContainerRun.PortBinding>> readPortBindings(
+      JsonParser parser) throws IOException {
+    Map<String, List<PodmanContainerRun.PortBinding>> portBindings = new LinkedHashMap<>();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String port = parser.getCurrentName();
+      List<PodmanContainerRun.PortBinding> bindings = new ArrayList<>();
+      if (parser.nextToken() == JsonToken.START_ARRAY) {
+        for (JsonToken element = parser.nextToken();
+            element != JsonToken.END_ARRAY && element != null;
+            element = parser.nextToken()) {
+          if (element == JsonToken.START_OBJECT) {
+            bindings.add(readPortBinding(parser));
+          } else {
+            parser.skipChildren();
+          }
+        }
+      } else {
+        // unpublished ports have null bindings
+        parser.skipChildren();
+      }
+      portBindings.put(port, bindings);
+    }
+    return portBindings;
+  }
+
+  private static PodmanContainerRun.PortBinding readPortBinding(JsonParser parser)
+      throws IOException {
+    PodmanContainerRun.PortBinding binding = new PodmanContainerRun.PortBinding();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.getCurrentName();
+      JsonToken value = parser.nextToken();
+      if (value == JsonToken.VALUE_STRING && name.equals("HostIp")) {
+        binding.HostIp = parser.getText();
+      } else if (value == JsonToken.VALUE_STRING && name.equals("HostPort")) {
+        binding.HostPort = parser.getText();
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return binding;
+  }
+}
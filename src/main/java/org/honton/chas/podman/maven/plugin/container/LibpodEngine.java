@@ -0,0 +1,184 @@
+package org.honton.chas.podman.maven.plugin.container;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.honton.chas.podman.maven.plugin.config.ContainerConfig;
+import org.honton.chas.podman.maven.plugin.config.LogConfig;
+import org.honton.chas.podman.maven.plugin.libpod.LibpodClient;
+
+/** Container engine which sends requests to the libpod REST service */
+class LibpodEngine implements ContainerEngine {
+
+  private final PodmanContainer goal;
+  private final LibpodClient client;
+  private final Executor executor;
+
+  LibpodEngine(PodmanContainer goal, LibpodClient client, Executor executor) {
+    this.goal = goal;
+    this.client = client;
+    this.executor = executor;
+  }
+
+  @Override
+  public void createNetwork(String networkName, String driver) throws IOException {
+    if (!client.createNetwork(networkName, driver)) {
+      goal.getLog().info("network " + networkName + " already exists");
+    }
+  }
+
+  @Override
+  public void removeNetwork(String networkName) throws IOException {
+    client.removeNetwork(networkName);
+  }
+
+  @Override
+  public String createPod(
+      String podName,
+      Collection<ContainerConfig> containerConfigs,
+      Map<String, String> portToPropertyName)
+      throws MojoExecutionException, IOException {
+    List<String> hosts = new ArrayList<>();
+    List<Object> portMappings = new ArrayList<>();
+    for (ContainerConfig containerConfig : containerConfigs) {
+      hosts.add(containerConfig.alias + ":127.0.0.1");
+      if (!containerConfig.alias.equals(containerConfig.name)) {
+        hosts.add(containerConfig.name + ":127.0.0.1");
+      }
+      ContainerSpec ports = new ContainerSpec(goal, containerConfig).addPorts();
+      Object mappings = ports.getSpec().get("portmappings");
+      if (mappings != null) {
+        portMappings.addAll((List<?>) mappings);
+      }
+      portToPropertyName.putAll(ports.getPortToPropertyName());
+    }
+
+    Map<String, Object> spec = new LinkedHashMap<>();
+    spec.put("name", podName);
+    spec.put("hostadd", hosts);
+    if (!portMappings.isEmpty()) {
+      spec.put("portmappings", portMappings);
+    }
+    client.createPod(spec);
+    // start the infra container so that host ports are assigned before any container starts
+    client.startPod(podName);
+    return client.inspectPod(podName, PodmanContainerRun.PodInspect.class).InfraContainerID;
+  }
+
+  @Override
+  public void removePod(String podName) throws IOException {
+    client.removePod(podName);
+  }
+
+  @Override
+  public boolean pullImage(String image) throws IOException {
+    if (client.imageExists(image)) {
+      return false;
+    }
+    client.pullImage(image);
+    return true;
+  }
+
+  @Override
+  public PodmanContainerRun.ImageInspect inspectImage(String image) throws IOException {
+    return client.inspectImage(image, PodmanContainerRun.ImageInspect.class);
+  }
+
+  @Override
+  public List<PodmanContainerRun.ContainerSummary> listContainers(String containerName)
+      throws IOException {
+    return client.listContainers(
+        PodmanContainerRun.namePattern(containerName), PodmanContainerRun.ContainerSummary.class);
+  }
+
+  @Override
+  public String runContainer(
+      ContainerConfig containerConfig,
+      String networkName,
+      String podName,
+      Map<String, String> labels,
+      Map<String, String> portToPropertyName)
+      throws MojoExecutionException, IOException {
+    ContainerSpec spec = new ContainerSpec(goal, containerConfig);
+    if (podName != null) {
+      // the pod holds the network and the published ports
+      spec.addPod(podName);
+    } else {
+      spec.addContainerName(networkName).addPorts();
+    }
+    spec.addContainerOptions()
+        .addLabels(labels)
+        .addEnvironment(goal.getLog()::warn)
+        .addDevices(goal.devices)
+        .addMounts()
+        .addContainerCmd();
+
+    // images are pulled before any container is created
+    String containerId = client.createContainer(spec.getSpec());
+    client.startContainer(containerId);
+    portToPropertyName.putAll(spec.getPortToPropertyName());
+    return containerId;
+  }
+
+  @Override
+  public boolean checkpointContainer(String containerId, Path archive)
+      throws MojoExecutionException, IOException {
+    // the transport sends json bodies; archives are exchanged through the command line
+    return new CliEngine(goal).checkpointContainer(containerId, archive);
+  }
+
+  @Override
+  public String restoreContainer(
+      ContainerConfig containerConfig, Path archive, Map<String, String> portToPropertyName)
+      throws MojoExecutionException, IOException {
+    return new CliEngine(goal).restoreContainer(containerConfig, archive, portToPropertyName);
+  }
+
+  @Override
+  public Map<String, Map<String, List<PodmanContainerRun.PortBinding>>> portBindings(
+      List<String> containerIds) throws IOException {
+    // the service is already resident; each inspect is a request rather than a fork
+    Map<String, Map<String, List<PodmanContainerRun.PortBinding>>> portBindings = new HashMap<>();
+    for (String containerId : containerIds) {
+      portBindings.put(
+          containerId,
+          client.inspectContainer(containerId, PodmanContainerRun.ContainerInspect.class)
+              .HostConfig
+              .PortBindings);
+    }
+    return portBindings;
+  }
+
+  @Override
+  public void followLogs(String containerId, LogConfig logConfig, Consumer<String> lineConsumer) {
+    executor.execute(
+        () -> {
+          try {
+            client.followLogs(containerId, logConfig.timestamps, lineConsumer);
+          } catch (IOException e) {
+            lineConsumer.accept(e.getMessage());
+          }
+          if (lineConsumer instanceof Closeable) {
+            try {
+              ((Closeable) lineConsumer).close();
+            } catch (IOException e) {
+              goal.getLog().warn(e.getMessage());
+            }
+          }
+        });
+  }
+
+  @Override
+  public void removeContainer(ContainerConfig containerConfig) throws IOException {
+    client.removeContainer(goal.containerId(containerConfig), containerConfig.stopTimeout);
+  }
+}
@@ -0,0 +1,238 @@
+package org.honton.chas.podman.maven.plugin.container;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.honton.chas.podman.maven.plugin.config.WaitConfig;
+
+/**
+ * Match log lines against the success and failure conditions of a wait configuration. Literal
+ * conditions are found with a single Aho-Corasick automaton; regular expressions are joined as the
+ * alternatives of a single pattern. A line without any match is therefore scanned once, whatever
+ * the number of conditions. Where the joined pattern matches, each expression still watched is
+ * tried at that position only, so that conditions which match at the same place are all seen. An
+ * expression with a backreference, named group, quotation, or inline flag would change meaning or
+ * affect its neighbours when joined, so it is searched for separately.
+ */
+class LogMatcher implements Consumer<String> {
+
+  // constructs whose meaning depends on the rest of the pattern
+  private static final Pattern NOT_JOINABLE =
+      Pattern.compile("\\\\[1-9]|\\\\k<|\\\\Q|\\(\\?(?:<\\w|[a-zA-Z-])");
+
+  private final List<String> literals = new ArrayList<>();
+  private final List<String> patterns = new ArrayList<>();
+  private final int successLiterals;
+  private final int successPatterns;
+  private final AhoCorasick automaton;
+  private final Pattern combined;
+  private final Pattern[] each;
+  private final BitSet separate = new BitSet();
+  private final BitSet unseen = new BitSet();
+  private final CountDownLatch done = new CountDownLatch(1);
+  private volatile String failure;
+  private volatile boolean finished;
+
+  LogMatcher(
+      List<String> successLiterals,
+      List<String> successPatterns,
+      List<String> failureLiterals,
+      List<String> failurePatterns) {
+    literals.addAll(successLiterals);
+    literals.addAll(failureLiterals);
+    this.successLiterals = successLiterals.size();
+    patterns.addAll(successPatterns);
+    patterns.addAll(failurePatterns);
+    this.successPatterns = successPatterns.size();
+
+    automaton = literals.isEmpty() ? null : new AhoCorasick(literals);
+    each = patterns.stream().map(Pattern::compile).toArray(Pattern[]::new);
+    List<String> alternatives = new ArrayList<>();
+    for (int i = 0; i < patterns.size(); ++i) {
+      if (NOT_JOINABLE.matcher(patterns.get(i)).find()) {
+        separate.set(i);
+      } else {
+        alternatives.add(patterns.get(i));
+      }
+    }
+    combined = alternatives.isEmpty() ? null : Pattern.compile(String.join("|", alternatives));
+
+    // success conditions are numbered: literals first, then patterns
+    unseen.set(0, this.successLiterals + this.successPatterns);
+    if (unseen.isEmpty() && !isEmpty()) {
+      // only failure conditions; success is never signalled by the log
+      done.countDown();
+    }
+  }
+
+  static LogMatcher of(WaitConfig waitConfig) {
+    List<String> successLiterals = new ArrayList<>();
+    if (waitConfig != null) {
+      if (waitConfig.log != null) {
+        successLiterals.add(waitConfig.log);
+      }
+      addAll(successLiterals, waitConfig.logs);
+    }
+    return new LogMatcher(
+        successLiterals,
+        waitConfig != null ? nonNull(waitConfig.logPatterns) : List.of(),
+        waitConfig != null ? nonNull(waitConfig.failures) : List.of(),
+        waitConfig != null ? nonNull(waitConfig.failurePatterns) : List.of());
+  }
+
+  private static void addAll(List<String> to, List<String> from) {
+    if (from != null) {
+      to.addAll(from);
+    }
+  }
+
+  private static List<String> nonNull(List<String> list) {
+    return list != null ? list : List.of();
+  }
+
+  /** true if there are no conditions */
+  boolean isEmpty() {
+    return literals.isEmpty() && patterns.isEmpty();
+  }
+
+  @Override
+  public void accept(String line) {
+    if (finished) {
+      return;
+    }
+    if (automaton != null) {
+      automaton.search(line, this::literalFound);
+    }
+    if (!patterns.isEmpty()) {
+      findPatterns(line);
+    }
+  }
+
+  private void findPatterns(String line) {
+    Matcher[] matchers = null;
+    for (int i = separate.nextSetBit(0); i >= 0 && !finished; i = separate.nextSetBit(i + 1)) {
+      if (isWatched(i)) {
+        if (matchers == null) {
+          matchers = new Matcher[patterns.size()];
+        }
+        if (matcher(matchers, i, line).find()) {
+          patternFound(i);
+        }
+      }
+    }
+    if (combined == null) {
+      return;
+    }
+
+    Matcher matcher = combined.matcher(line);
+    if (!matcher.find()) {
+      return;
+    }
+    if (matchers == null) {
+      matchers = new Matcher[patterns.size()];
+    }
+    BitSet found = (BitSet) separate.clone();
+    // restart after each match start, so that overlapping matches are found
+    do {
+      int start = matcher.start();
+      boolean watching = false;
+      for (int i = found.nextClearBit(0); i < patterns.size(); i = found.nextClearBit(i + 1)) {
+        if (finished) {
+          return;
+        }
+        if (!isWatched(i)) {
+          found.set(i);
+          continue;
+        }
+        // the alternation does not tell which alternatives match at start
+        if (matcher(matchers, i, line).region(start, line.length()).lookingAt()) {
+          found.set(i);
+          patternFound(i);
+        } else {
+          watching = true;
+        }
+      }
+      if (!watching) {
+        return;
+      }
+    } while (matcher.start() < line.length() && matcher.find(matcher.start() + 1));
+  }
+
+  /** The matcher of a pattern for the line, created once per line */
+  private Matcher matcher(Matcher[] matchers, int pattern, String line) {
+    Matcher matcher = matchers[pattern];
+    if (matcher == null) {
+      // bounds of a region at a match position do not act as the start of the line
+      matcher = each[pattern].matcher(line).useAnchoringBounds(false).useTransparentBounds(true);
+      matchers[pattern] = matcher;
+    }
+    return matcher;
+  }
+
+  /** Whether a pattern is a failure condition or a success condition not yet seen */
+  private synchronized boolean isWatched(int pattern) {
+    return pattern >= successPatterns || unseen.get(successLiterals + pattern);
+  }
+
+  private void literalFound(int id) {
+    if (id < successLiterals) {
+      seen(id);
+    } else {
+      failed(literals.get(id));
+    }
+  }
+
+  private void patternFound(int id) {
+    if (id < successPatterns) {
+      seen(successLiterals + id);
+    } else {
+      failed(patterns.get(id));
+    }
+  }
+
+  private synchronized void seen(int condition) {
+    if (unseen.get(condition)) {
+      unseen.clear(condition);
+      if (unseen.isEmpty()) {
+        finished = true;
+        done.countDown();
+      }
+    }
+  }
+
+  private void failed(String condition) {
+    if (failure == null) {
+      failure = condition;
+    }
+    finished = true;
+    done.countDown();
+  }
+
+  /**
+   * Wait until all success conditions are seen or any failure condition is seen
+   *
+   * @param millis Maximum milliseconds to wait
+   * @return false if the wait timed out
+   */
+  boolean await(long millis) throws InterruptedException {
+    return done.await(millis, TimeUnit.MILLISECONDS);
+  }
+
+  /** The failure condition seen in the log, or null */
+  String getFailure() {
+    return failure;
+  }
+
+  /** The success conditions not yet seen in the log */
+  synchronized List<String> getUnseen() {
+    return unseen.stream()
+        .mapToObj(i -> i < successLiterals ? literals.get(i) : patterns.get(i - successLiterals))
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,164 @@
+package org.honton.chas.podman.maven.plugin.container;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Spool log lines to a writer from a background task. Each line is passed to the observer
+ * immediately on the calling thread, then queued. The background task writes queued lines in
+ * batches and flushes when the queue drains or the flush interval elapses. When the queue is full,
+ * the caller blocks until the writer catches up.
+ */
+class LogSink implements Consumer<String>, Closeable {
+
+  static final int CAPACITY = 8192;
+  static final long FLUSH_MILLIS = 200;
+  private static final int BATCH = 1024;
+
+  // identity compared sentinel which marks end of log
+  private static final String END = new String("");
+
+  private final BlockingQueue<String> queue;
+  private final Writer writer;
+  private final Consumer<String> observer;
+  private final Consumer<String> reporter;
+  private final CountDownLatch done = new CountDownLatch(1);
+  private volatile boolean stopped;
+
+  // metrics
+  private long lines;
+  private long batches;
+  private long stalls;
+  private int peakDepth;
+
+  /**
+   * Create a sink and start its writer task
+   *
+   * @param writer The destination of lines
+   * @param observer Consumer of each line, invoked before the line is queued
+   * @param reporter Consumer of the sink metrics, invoked when the sink is closed
+   * @param executor Executor of the writer task
+   */
+  LogSink(Writer writer, Consumer<String> observer, Consumer<String> reporter, Executor executor) {
+    this(writer, observer, reporter, executor, CAPACITY);
+  }
+
+  LogSink(
+      Writer writer,
+      Consumer<String> observer,
+      Consumer<String> reporter,
+      Executor executor,
+      int capacity) {
+    this.queue = new ArrayBlockingQueue<>(capacity);
+    this.writer = writer;
+    this.observer = observer;
+    this.reporter = reporter;
+    executor.execute(this::drain);
+  }
+
+  @Override
+  public void accept(String line) {
+    observer.accept(line);
+    enqueue(line);
+  }
+
+  private void enqueue(String line) {
+    if (stopped) {
+      return;
+    }
+    if (!queue.offer(line)) {
+      ++stalls;
+      try {
+        queue.put(line);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+    int depth = queue.size();
+    if (depth > peakDepth) {
+      peakDepth = depth;
+    }
+  }
+
+  /** Write remaining lines, close the writer, and report metrics */
+  @Override
+  public void close() {
+    enqueue(END);
+    try {
+      done.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    reporter.accept(
+        lines
+            + " lines in "
+            + batches
+            + " batches, "
+            + stalls
+            + " stalls, peak queue depth "
+            + peakDepth);
+  }
+
+  private void drain() {
+    List<String> batch = new ArrayList<>(BATCH);
+    long lastFlush = System.currentTimeMillis();
+    boolean dirty = false;
+    try (writer) {
+      for (; ; ) {
+        String first = queue.poll(FLUSH_MILLIS, TimeUnit.MILLISECONDS);
+        if (first != null) {
+          batch.add(first);
+          queue.drainTo(batch, BATCH - 1);
+          if (write(batch)) {
+            break;
+          }
+          batch.clear();
+          dirty = true;
+        }
+        long now = System.currentTimeMillis();
+        if (dirty && (queue.isEmpty() || now - lastFlush >= FLUSH_MILLIS)) {
+          writer.flush();
+          lastFlush = now;
+          dirty = false;
+        }
+      }
+    } catch (IOException e) {
+      reporter.accept(e.getMessage());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      // discard anything queued so producers do not block
+      stopped = true;
+      queue.clear();
+      done.countDown();
+    }
+  }
+
+  /**
+   * Write a batch of lines
+   *
+   * @return true if the end of log was reached
+   */
+  private boolean write(List<String> batch) throws IOException {
+    ++batches;
+    for (String line : batch) {
+      if (line == END) {
+        return true;
+      }
+      writer.write(line);
+      writer.write(System.lineSeparator());
+      ++lines;
+    }
+    return false;
+  }
+}
@@ -0,0 +1,30 @@
+package org.honton.chas.podman.maven.plugin.container;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Getter;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.honton.chas.podman.maven.plugin.cmdline.CommandLine;
+import org.honton.chas.podman.maven.plugin.config.ContainerConfig;
+
+class PodCreateCommandLine extends CommandLine {
+  @Getter private final Map<String, String> portToPropertyName = new HashMap<>();
+
+  PodCreateCommandLine(
+      PodmanContainer goal, String podName, Collection<ContainerConfig> containerConfigs)
+      throws MojoExecutionException {
+    super(goal);
+    addCmd("pod");
+    addCmd("create");
+    addParameter("--name").addParameter(podName);
+    for (ContainerConfig containerConfig : containerConfigs) {
+      // containers of the pod share localhost; their aliases and names resolve to it
+      addParameter("--add-host").addParameter(containerConfig.alias + ":127.0.0.1");
+      if (!containerConfig.alias.equals(containerConfig.name)) {
+        addParameter("--add-host").addParameter(containerConfig.name + ":127.0.0.1");
+      }
+      ContainerRunCommandLine.addPublish(this, goal, containerConfig, portToPropertyName);
+    }
+  }
+}
@@ -10,6 +10,7 @@ import org.honton.chas.podman.maven.plugin.PodmanGoal;
 import org.honton.chas.podman.maven.plugin.config.ContainerConfig;
 import org.honton.chas.podman.maven.plugin.config.DeviceMountConfig;
 import org.honton.chas.podman.maven.plugin.config.NetworkConfig;
+import org.honton.chas.podman.maven.plugin.libpod.LibpodClient;
 
 public abstract class PodmanContainer extends PodmanGoal {
 
@@ -26,10 +27,42 @@ public abstract class PodmanContainer extends PodmanGoal {
   /** Map of networks */
   @Parameter NetworkConfig network;
 
+  /**
+   * Engine which manages containers. `cli` forks the podman command line; `api` sends requests to
+   * the libpod REST service, falling back to `cli` if the service is not available.
+   *
+   * @since 0.0.7
+   */
+  @Parameter(property = "podman.engine", defaultValue = "cli")
+  String engine;
+
+  /**
+   * Keep containers running after the build. A later build adopts a running container whose
+   * configuration and image are unchanged, rather than creating a new container.
+   *
+   * @since 0.0.7
+   */
+  @Parameter(property = "podman.reuse", defaultValue = "false")
+  boolean reuse;
+
+  /**
+   * How containers are connected. `network` runs each container on a per-build network, where
+   * containers reach each other by alias. `pod` runs all containers in one pod, where containers
+   * share one network namespace and reach each other on localhost or by alias.
+   *
+   * @since 0.0.7
+   */
+  @Parameter(property = "podman.topology", defaultValue = "network")
+  String topology;
+
   // Current maven project
   @Parameter(defaultValue = "${project}", readonly = true)
   MavenProject project;
 
+  // work variables ...
+  ContainerEngine containerEngine;
+  boolean pod;
+
   static String sanitize(String jobName) {
     return jobName.replaceAll("[^a-zA-Z0-9_.-]", ".");
   }
@@ -40,9 +73,40 @@ public abstract class PodmanContainer extends PodmanGoal {
 
   @Override
   protected final void doExecute() throws IOException, MojoExecutionException {
+    pod = isPodTopology();
+    containerEngine = createEngine();
     String networkName = getNetworkName();
-    List<ContainerConfig> ordered = ContainerConfigHelper.order(networkName, containers, getLog());
-    doExecute(ordered, networkName);
+    List<List<ContainerConfig>> levels =
+        ContainerConfigHelper.order(networkName, containers, getLog());
+    doExecute(levels, networkName);
+  }
+
+  private boolean isPodTopology() throws MojoExecutionException {
+    if (topology == null || "network".equalsIgnoreCase(topology)) {
+      return false;
+    }
+    if ("pod".equalsIgnoreCase(topology)) {
+      return true;
+    }
+    throw new MojoExecutionException("topology must be network or pod, not " + topology);
+  }
+
+  private ContainerEngine createEngine() {
+    if ("api".equalsIgnoreCase(engine)) {
+      if (connection != null) {
+        getLog().warn("api engine does not support connection, using cli engine");
+      } else {
+        try {
+          LibpodClient client =
+              new LibpodClient(timed(LibpodClient.transport(url)), getLog()::info);
+          client.ping();
+          return new LibpodEngine(this, client, getStreamExecutor());
+        } catch (IOException e) {
+          getLog().warn("libpod service not available, using cli engine: " + e.getMessage());
+        }
+      }
+    }
+    return new CliEngine(this);
   }
 
   final String getNetworkName() {
@@ -56,7 +120,13 @@ public abstract class PodmanContainer extends PodmanGoal {
     return project.getArtifactId();
   }
 
-  protected abstract void doExecute(List<ContainerConfig> containerConfigs, String networkName)
+  /**
+   * Execute goal upon containers
+   *
+   * @param levels The containers, grouped into levels; each level requires only prior levels
+   * @param networkName The network name
+   */
+  protected abstract void doExecute(List<List<ContainerConfig>> levels, String networkName)
       throws IOException, MojoExecutionException;
 
   protected void setProperty(String mavenPropertyName, String mavenPropertyValue) {
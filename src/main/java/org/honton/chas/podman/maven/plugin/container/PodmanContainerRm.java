@@ -18,25 +18,32 @@ import org.honton.chas.podman.maven.plugin.config.ContainerConfig;
 public class PodmanContainerRm extends PodmanContainer {
 
   @Override
-  protected void doExecute(List<ContainerConfig> containerConfigs, String networkName)
+  protected void doExecute(List<List<ContainerConfig>> levels, String networkName)
       throws IOException, MojoExecutionException {
-    ListIterator<ContainerConfig> li = containerConfigs.listIterator(containerConfigs.size());
+    if (reuse) {
+      getLog().info("Keeping containers and network " + networkName + " for reuse");
+      return;
+    }
+    if (pod) {
+      // removing the pod removes its containers
+      containerEngine.removePod(networkName);
+      return;
+    }
+    // remove dependents before their requirements, each level concurrently
+    ListIterator<List<ContainerConfig>> li = levels.listIterator(levels.size());
     while (li.hasPrevious()) {
-      rmContainer(li.previous());
+      forEachConcurrently(li.previous(), this::rmContainer);
     }
-    rmNetwork(networkName);
-  }
-
-  @SneakyThrows
-  private void rmNetwork(String networkName) {
-    NetworkCommandLine cmdLine = new NetworkCommandLine(this);
-    cmdLine.addCmd("rm");
-    cmdLine.addParameter(networkName);
-    executeCommand(cmdLine);
+    containerEngine.removeNetwork(networkName);
   }
 
   @SneakyThrows
   private void rmContainer(ContainerConfig containerConfig) {
-    executeCommand(new ContainerRmCommandLine(this, containerConfig));
+    setCommandSubject(containerConfig.alias);
+    try {
+      containerEngine.removeContainer(containerConfig);
+    } finally {
+      setCommandSubject(null);
+    }
   }
 }
@@ -1,9 +1,8 @@
 package org.honton.chas.podman.maven.plugin.container;
 
-import com.fasterxml.jackson.jr.ob.JSON;
 import java.io.BufferedWriter;
+import java.io.File;
 import java.io.IOException;
-import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
@@ -13,22 +12,27 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CountDownLatch;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import lombok.Data;
 import lombok.SneakyThrows;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
 import org.codehaus.plexus.interpolation.InterpolationException;
 import org.codehaus.plexus.interpolation.Interpolator;
 import org.codehaus.plexus.interpolation.PropertiesBasedValueSource;
 import org.codehaus.plexus.interpolation.StringSearchInterpolator;
-import org.honton.chas.podman.maven.plugin.cmdline.CommandLine;
 import org.honton.chas.podman.maven.plugin.config.ContainerConfig;
 import org.honton.chas.podman.maven.plugin.config.HttpWaitConfig;
 import org.honton.chas.podman.maven.plugin.config.LogConfig;
@@ -42,123 +46,388 @@ import org.honton.chas.podman.maven.plugin.config.WaitConfig;
 @Mojo(name = "container-run", defaultPhase = LifecyclePhase.PRE_INTEGRATION_TEST, threadSafe = true)
 public class PodmanContainerRun extends PodmanContainer {
 
+  /**
+   * Maximum number of concurrent image pulls
+   *
+   * @since 0.0.7
+   */
+  @Parameter(property = "podman.pull.parallelism", defaultValue = "4")
+  int pullParallelism = 4;
+
+  /**
+   * Directory of container checkpoints, shared by builds
+   *
+   * @since 0.0.7
+   */
+  @Parameter(
+      property = "podman.checkpoint.directory",
+      defaultValue = "${user.home}/.cache/podman-maven-plugin/checkpoints")
+  File checkpointDirectory;
+
+  /**
+   * Maximum total size of the container checkpoints. Must be number followed by unit of 'b'
+   * (bytes), 'k' (kibibytes), 'm' (mebibytes), or 'g' (gibibytes). The least recently used
+   * checkpoints are deleted beyond this size.
+   *
+   * @since 0.0.7
+   */
+  @Parameter(property = "podman.checkpoint.cacheSize", defaultValue = "10g")
+  String checkpointCacheSize = "10g";
+
+  // work variables ...
+  private final Map<String, ImageInspect> images = new ConcurrentHashMap<>();
+  private CheckpointCache checkpoints;
+
   private Consumer<String> createConsumer(
       BufferedWriter writer, String alias, Consumer<String> matcher) {
-    return (String line) -> {
-      try {
-        Log log = getLog();
-        if (log.isDebugEnabled()) {
-          log.debug(alias + ": " + line);
-        }
-        matcher.accept(line);
-        writer.append(line);
-        writer.newLine();
-        writer.flush();
-      } catch (IOException e) {
-        throw new UncheckedIOException(e);
-      }
-    };
+    Log log = getLog();
+    return new LogSink(
+        writer,
+        line -> {
+          if (log.isDebugEnabled()) {
+            log.debug(alias + ": " + line);
+          }
+          matcher.accept(line);
+        },
+        metrics -> log.debug(alias + " log: " + metrics),
+        getStreamExecutor());
   }
 
   @Override
-  protected void doExecute(List<ContainerConfig> containerConfigs, String networkName)
+  protected void doExecute(List<List<ContainerConfig>> levels, String networkName)
       throws IOException, MojoExecutionException {
-    createNetwork(networkName);
-    containerConfigs.forEach(containerConfig -> runContainer(containerConfig, networkName));
+    String podName = null;
+    if (pod) {
+      if (reuse || levels.stream().flatMap(List::stream).anyMatch(c -> c.checkpoint)) {
+        throw new MojoExecutionException("pod topology does not support reuse or checkpoint");
+      }
+      ContainerConfigHelper.checkPodPorts(levels);
+      pullImages(levels);
+      podName = networkName;
+      createPod(podName, levels);
+    } else {
+      containerEngine.createNetwork(networkName, network != null ? network.driver : null);
+      pullImages(levels);
+    }
+    if (levels.stream().flatMap(List::stream).anyMatch(c -> c.checkpoint)) {
+      checkpoints =
+          new CheckpointCache(
+              checkpointDirectory.toPath(),
+              ContainerSpec.toBytes(checkpointCacheSize),
+              getLog()::info);
+    }
+    for (List<ContainerConfig> level : levels) {
+      // containers of a level only require containers of prior levels, which are already started
+      Map<ContainerConfig, StartedContainer> started = new ConcurrentHashMap<>();
+      String containerPod = podName;
+      forEachConcurrently(
+          level,
+          containerConfig ->
+              started.put(
+                  containerConfig, startContainer(containerConfig, networkName, containerPod)));
+      setAssignedPorts(
+          started.values().stream()
+              .collect(Collectors.toMap(c -> c.containerId, c -> c.portToPropertyName)));
+      forEachConcurrently(level, containerConfig -> awaitContainer(started.get(containerConfig)));
+    }
   }
 
-  @SneakyThrows
-  private void createNetwork(String networkName) {
-    NetworkCommandLine cmdLine = new NetworkCommandLine(this);
-    cmdLine.addCmd("create");
-    if (network != null && network.driver != null) {
-      cmdLine.addParameter("--driver").addParameter(network.driver);
+  /**
+   * Create the pod which holds all containers. The pod publishes the ports of every container, so
+   * the dynamically assigned host ports are known before any container starts.
+   */
+  private void createPod(String podName, List<List<ContainerConfig>> levels)
+      throws MojoExecutionException, IOException {
+    Map<String, String> portToPropertyName = new HashMap<>();
+    String infraId =
+        containerEngine.createPod(
+            podName,
+            levels.stream().flatMap(List::stream).collect(Collectors.toList()),
+            portToPropertyName);
+    getLog().info("Created pod " + podName);
+    setAssignedPorts(Map.of(infraId, portToPropertyName));
+  }
+
+  /**
+   * Pull the images of all containers before any container starts. A pull no longer waits upon the
+   * containers of prior levels, and pulls of different images overlap.
+   */
+  private void pullImages(List<List<ContainerConfig>> levels)
+      throws MojoExecutionException, IOException {
+    Set<String> distinct = new LinkedHashSet<>();
+    for (List<ContainerConfig> level : levels) {
+      for (ContainerConfig containerConfig : level) {
+        if (containerConfig.image == null) {
+          throw new MojoExecutionException("Missing image for container " + containerConfig.alias);
+        }
+        distinct.add(containerConfig.image);
+      }
     }
-    cmdLine.addParameter(networkName);
-    executeCommand(cmdLine, this::checkExists);
+    forEachConcurrently(distinct, pullParallelism, this::pullImage);
   }
 
   @SneakyThrows
-  void checkExists(int exitCode) {
-    if (exitCode != 0 && !errorOutput.toString().contains("network already exists")) {
-      throw new MojoExecutionException("podman exit value: " + exitCode);
+  private void pullImage(String image) {
+    long startTime = System.currentTimeMillis();
+    boolean pulled = containerEngine.pullImage(image);
+    ImageInspect inspect = containerEngine.inspectImage(image);
+    images.put(image, inspect);
+    if (pulled) {
+      getLog()
+          .info(
+              "Pulled "
+                  + image
+                  + " ("
+                  + inspect.Size
+                  + " bytes) in "
+                  + (System.currentTimeMillis() - startTime)
+                  + " ms");
+    } else {
+      getLog().debug(image + " already present");
     }
   }
 
   @SneakyThrows
-  private void runContainer(ContainerConfig containerConfig, String networkName) {
-    ContainerRunCommandLine runCommandLine =
-        new ContainerRunCommandLine(this, containerConfig)
-            .addContainerName()
-            .addContainerOptions(networkName)
-            .addEnvironment(getLog()::warn)
-            .addDevices(devices)
-            .addMounts()
-            .addPorts()
-            .addContainerCmd();
-
-    String containerId = executeInfoCommand(runCommandLine.getCommand());
-    setProperty(containerIdPropertyName(containerConfig), containerId);
-
-    Map<Integer, String> portToPropertyName = runCommandLine.getPortToPropertyName();
-    if (!portToPropertyName.isEmpty()) {
-      setAssignedPorts(containerId, portToPropertyName);
+  private StartedContainer startContainer(
+      ContainerConfig containerConfig, String networkName, String podName) {
+    long startTime = System.currentTimeMillis();
+    setCommandSubject(containerConfig.alias);
+    try {
+      Map<String, String> portToPropertyName = new HashMap<>();
+      Map<String, String> labels = new HashMap<>();
+      String fingerprint = null;
+      String containerId = null;
+      Origin origin = Origin.ADOPTED;
+      if (reuse || containerConfig.checkpoint) {
+        fingerprint =
+            ContainerFingerprint.of(
+                containerConfig,
+                networkName,
+                images.get(containerConfig.image).Id,
+                devices,
+                this::getProperty);
+        labels.put(ContainerFingerprint.LABEL, fingerprint);
+      }
+      if (reuse) {
+        containerId = adoptContainer(containerConfig, networkName, fingerprint, portToPropertyName);
+      }
+      if (containerId == null && containerConfig.checkpoint) {
+        origin = Origin.RESTORED;
+        containerId = restoreContainer(containerConfig, fingerprint, portToPropertyName);
+      }
+      if (containerId == null) {
+        origin = Origin.CREATED;
+        containerId =
+            containerEngine.runContainer(
+                containerConfig, networkName, podName, labels, portToPropertyName);
+      }
+      setProperty(containerIdPropertyName(containerConfig), containerId);
+
+      LogMatcher logMatcher = startLogSpooler(containerId, containerConfig);
+      return new StartedContainer(
+          containerConfig,
+          containerId,
+          origin,
+          fingerprint,
+          portToPropertyName,
+          logMatcher,
+          startTime);
+    } finally {
+      setCommandSubject(null);
+    }
+  }
+
+  /**
+   * Restore a container from its cached checkpoint
+   *
+   * @return The id of the restored container, or null if there is no checkpoint or the restore
+   *     failed
+   */
+  private String restoreContainer(
+      ContainerConfig containerConfig, String fingerprint, Map<String, String> portToPropertyName)
+      throws MojoExecutionException, IOException {
+    Path archive = checkpoints.lookup(fingerprint);
+    if (archive == null) {
+      return null;
+    }
+    String containerId =
+        containerEngine.restoreContainer(containerConfig, archive, portToPropertyName);
+    if (containerId != null) {
+      getLog().info("Restored " + containerConfig.alias + " from checkpoint " + archive);
+      return containerId;
+    }
+
+    getLog().warn("Could not restore " + containerConfig.alias + ", starting it normally");
+    // the run assigns the dynamic host ports anew
+    portToPropertyName.values().forEach(project.getProperties()::remove);
+    portToPropertyName.clear();
+    for (ContainerSummary summary : containerEngine.listContainers(containerConfig.name)) {
+      if (summary.Names != null && summary.Names.contains(containerConfig.name)) {
+        containerEngine.removeContainer(containerConfig);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Export a checkpoint of a ready container into the cache. Failure is not fatal; the container
+   * will start normally next time.
+   */
+  private void saveCheckpoint(StartedContainer container)
+      throws MojoExecutionException, IOException {
+    String alias = container.containerConfig.alias;
+    long startTime = System.currentTimeMillis();
+    Path staged = checkpoints.stage(container.fingerprint);
+    setCommandSubject(alias);
+    try {
+      if (containerEngine.checkpointContainer(container.containerId, staged)) {
+        long size = checkpoints.store(container.fingerprint, staged);
+        getLog()
+            .info(
+                "Checkpointed "
+                    + alias
+                    + " ("
+                    + size
+                    + " bytes) in "
+                    + (System.currentTimeMillis() - startTime)
+                    + " ms");
+      } else {
+        Files.deleteIfExists(staged);
+        getLog().warn("Could not checkpoint " + alias + "; checkpoint requires rootful podman");
+      }
+    } finally {
+      setCommandSubject(null);
     }
-    CountDownLatch logFragmentWait = startLogSpooler(containerId, containerConfig);
-    waitForStartup(containerConfig.wait, logFragmentWait);
   }
 
-  private void setAssignedPorts(String containerId, Map<Integer, String> portToPropertyName)
+  /**
+   * Adopt a running container of a prior build whose fingerprint matches. A container of the same
+   * name which does not match is removed, so that a new container can take its name.
+   *
+   * @return The id of the adopted container, or null if none matches
+   */
+  private String adoptContainer(
+      ContainerConfig containerConfig,
+      String networkName,
+      String fingerprint,
+      Map<String, String> portToPropertyName)
       throws MojoExecutionException, IOException {
-    String inspect =
-        executeInfoCommand(
-            new CommandLine(this)
-                .addCmd("container")
-                .addCmd("inspect")
-                .addParameter(containerId)
-                .addParameter("--format")
-                .addParameter("{{.HostConfig}}")
-                .getCommand());
-
-    Map<String, List<PortBinding>> portToBindings =
-        JSON.std.beanFrom(HostConfig.class, inspect).PortBindings;
-
-    portToPropertyName.forEach(
-        (port, name) -> {
-          List<PortBinding> portBindings = portToBindings.get(port + "/tcp");
-          if (portBindings != null && !portBindings.isEmpty()) {
-            // tbd - what to do with HostIp? why would there be multiple bindings? probably for
-            // multi-homed hosts?
-            setProperty(name, portBindings.get(0).HostPort);
-          } else {
-            getLog().warn(name + " not set; container port " + port + " has no mapping");
+    for (ContainerSummary summary : containerEngine.listContainers(containerConfig.name)) {
+      if (summary.Names == null || !summary.Names.contains(containerConfig.name)) {
+        continue;
+      }
+      if (isReusable(summary, networkName, fingerprint)) {
+        getLog().info("Reusing container " + containerConfig.name + " " + summary.Id);
+        if (containerConfig.ports != null) {
+          for (Map.Entry<String, String> entry : containerConfig.ports.entrySet()) {
+            if (getProperty(entry.getKey()) == null) {
+              portToPropertyName.put(
+                  PublishedPort.parse(entry.getValue()).toString(), entry.getKey());
+            }
           }
+        }
+        return summary.Id;
+      }
+      getLog().info("Replacing container " + containerConfig.name + ", it is not reusable");
+      containerEngine.removeContainer(containerConfig);
+    }
+    return null;
+  }
+
+  /** A container is reusable when running on the network with the same fingerprint */
+  static boolean isReusable(ContainerSummary summary, String networkName, String fingerprint) {
+    return "running".equalsIgnoreCase(summary.State)
+        && summary.Labels != null
+        && fingerprint.equals(summary.Labels.get(ContainerFingerprint.LABEL))
+        && summary.Networks != null
+        && summary.Networks.contains(networkName);
+  }
+
+  /** Regular expression which matches exactly the container name */
+  static String namePattern(String containerName) {
+    return '^' + containerName.replaceAll("[^a-zA-Z0-9_-]", "\\\\$0") + '$';
+  }
+
+  @SneakyThrows
+  private void awaitContainer(StartedContainer container) {
+    ContainerConfig containerConfig = container.containerConfig;
+    // a restored container's log may not hold the lines seen before its checkpoint
+    waitForStartup(
+        containerConfig.wait, container.origin != Origin.RESTORED ? container.logMatcher : null);
+    getLog()
+        .info(
+            containerConfig.alias
+                + " ready after "
+                + (System.currentTimeMillis() - container.startTime)
+                + " ms");
+    if (containerConfig.checkpoint && container.origin == Origin.CREATED) {
+      saveCheckpoint(container);
+    }
+  }
+
+  /**
+   * Discover the dynamically assigned host ports of several containers with a single inspect
+   *
+   * @param containerPorts Map of container id to the container port/protocol of each dynamically
+   *     assigned host port, mapped to the maven property name which receives the host port
+   */
+  private void setAssignedPorts(Map<String, Map<String, String>> containerPorts)
+      throws MojoExecutionException, IOException {
+    List<String> containerIds =
+        containerPorts.entrySet().stream()
+            .filter(e -> !e.getValue().isEmpty())
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toList());
+    if (containerIds.isEmpty()) {
+      return;
+    }
+    Map<String, Map<String, List<PortBinding>>> portBindings =
+        containerEngine.portBindings(containerIds);
+    containerPorts.forEach(
+        (containerId, portToPropertyName) -> {
+          Map<String, List<PortBinding>> portToBindings =
+              portBindings.getOrDefault(containerId, Map.of());
+          portToPropertyName.forEach(
+              (port, name) -> setAssignedPort(name, port, portToBindings.get(port)));
         });
   }
 
-  public String lookupProperty(String mavenPropertyName) {
-    return project.getProperties().getProperty(mavenPropertyName);
+  private void setAssignedPort(String name, String port, List<PortBinding> bindings) {
+    if (bindings == null || bindings.isEmpty()) {
+      getLog().warn(name + " not set; container port " + port + " has no mapping");
+      return;
+    }
+    setProperty(name, preferredBinding(bindings).HostPort);
+    if (bindings.size() > 1) {
+      // a multi-homed binding; each interface may have been assigned a different port
+      for (PortBinding binding : bindings) {
+        if (binding.HostIp != null && !binding.HostIp.isEmpty()) {
+          setProperty(name + '.' + binding.HostIp, binding.HostPort);
+        }
+      }
+    }
+  }
+
+  /** Prefer the binding on all interfaces, then any IPv4 interface, then the first binding */
+  static PortBinding preferredBinding(List<PortBinding> bindings) {
+    PortBinding ipv4 = null;
+    for (PortBinding binding : bindings) {
+      String hostIp = binding.HostIp;
+      if (hostIp == null || hostIp.isEmpty() || hostIp.equals("0.0.0.0")) {
+        return binding;
+      }
+      if (ipv4 == null && !hostIp.contains(":")) {
+        ipv4 = binding;
+      }
+    }
+    return ipv4 != null ? ipv4 : bindings.get(0);
   }
 
-  private CountDownLatch startLogSpooler(String containerId, ContainerConfig containerConfig)
+  private LogMatcher startLogSpooler(String containerId, ContainerConfig containerConfig)
       throws IOException, MojoExecutionException {
 
-    WaitConfig waitConfig = containerConfig.wait;
-    boolean logWait = waitConfig != null && waitConfig.log != null;
-    CountDownLatch logDone;
-    Consumer<String> matcher;
-    if (logWait) {
-      logDone = new CountDownLatch(1);
-      matcher =
-          line -> {
-            if (line.contains(waitConfig.log)) {
-              logDone.countDown();
-            }
-          };
-    } else {
-      logDone = null;
-      matcher = line -> {};
-    }
+    LogMatcher matcher = LogMatcher.of(containerConfig.wait);
+    boolean logWait = !matcher.isEmpty();
 
     LogConfig logConfig = containerConfig.log;
     if (logWait && logConfig == null) {
@@ -176,8 +445,9 @@ public class PodmanContainerRun extends PodmanContainer {
                       .resolve(Path.of("target", "podman", containerConfig.alias + ".log")));
       Files.createDirectories(path.getParent());
 
-      createProcess(
-          new LogsCommandLine(this, logConfig, containerId),
+      containerEngine.followLogs(
+          containerId,
+          logConfig,
           createConsumer(
               Files.newBufferedWriter(
                   path,
@@ -188,10 +458,10 @@ public class PodmanContainerRun extends PodmanContainer {
               matcher));
     }
 
-    return logDone;
+    return logWait ? matcher : null;
   }
 
-  private void waitForStartup(WaitConfig waitConfig, CountDownLatch logFragmentWait)
+  private void waitForStartup(WaitConfig waitConfig, LogMatcher logMatcher)
       throws MojoExecutionException, IOException, InterpolationException {
     if (waitConfig != null) {
       int time = waitConfig.time != 0 ? waitConfig.time : 60;
@@ -199,8 +469,8 @@ public class PodmanContainerRun extends PodmanContainer {
       long endTime = startTime + TimeUnit.SECONDS.toMillis(time);
       getLog().debug("start:" + startTime + ", end: " + endTime);
       try {
-        waitForLog(waitConfig, logFragmentWait, endTime);
-        waitForHttp(waitConfig.http, endTime);
+        waitForLog(logMatcher, endTime);
+        waitForHttp(waitConfig.http, logMatcher, endTime);
       } catch (InterruptedException ie) {
         Thread.currentThread().interrupt();
         throw new MojoExecutionException("interrupted", ie);
@@ -208,16 +478,24 @@ public class PodmanContainerRun extends PodmanContainer {
     }
   }
 
-  private void waitForLog(WaitConfig waitConfig, CountDownLatch logFragmentWait, long endTime)
+  private void waitForLog(LogMatcher logMatcher, long endTime)
       throws InterruptedException, MojoExecutionException {
-    if (logFragmentWait != null
-        && !logFragmentWait.await(endTime - System.currentTimeMillis(), TimeUnit.MILLISECONDS)) {
-      throw new MojoExecutionException("Did not see '" + waitConfig.log + "' in log");
+    if (logMatcher != null) {
+      if (!logMatcher.await(endTime - System.currentTimeMillis())) {
+        throw new MojoExecutionException("Did not see " + logMatcher.getUnseen() + " in log");
+      }
+      checkLogFailure(logMatcher);
+    }
+  }
+
+  private static void checkLogFailure(LogMatcher logMatcher) throws MojoExecutionException {
+    if (logMatcher != null && logMatcher.getFailure() != null) {
+      throw new MojoExecutionException("Saw failure '" + logMatcher.getFailure() + "' in log");
     }
   }
 
-  private void waitForHttp(HttpWaitConfig waitConfig, long endTime)
-      throws InterruptedException, IOException, InterpolationException {
+  private void waitForHttp(HttpWaitConfig waitConfig, LogMatcher logMatcher, long endTime)
+      throws InterruptedException, IOException, InterpolationException, MojoExecutionException {
     if (waitConfig != null) {
       HttpClient client =
           HttpClient.newBuilder()
@@ -228,13 +506,16 @@ public class PodmanContainerRun extends PodmanContainer {
       URI uri = URI.create(createInterpolator().interpolate(waitConfig.url));
       String method = waitConfig.method != null ? waitConfig.method : "GET";
       int status = waitConfig.status != 0 ? waitConfig.status : 200;
-      int interval = waitConfig.interval != 0 ? waitConfig.interval : 15;
+      int interval = waitConfig.interval != 0 ? waitConfig.interval : 2;
+      PollSchedule schedule =
+          new PollSchedule(
+              TimeUnit.SECONDS.toMillis(interval), endTime, ThreadLocalRandom.current());
 
       for (; ; ) {
         HttpRequest request =
             HttpRequest.newBuilder()
                 .uri(uri)
-                .timeout(Duration.ofMillis(endTime - System.currentTimeMillis()))
+                .timeout(Duration.ofMillis(Math.max(1, endTime - System.currentTimeMillis())))
                 .header("Accept", "*/*")
                 .method(method, HttpRequest.BodyPublishers.noBody())
                 .build();
@@ -247,7 +528,12 @@ public class PodmanContainerRun extends PodmanContainer {
         } catch (IOException ex) {
           getLog().debug(method + ' ' + uri + " => " + ex.getMessage());
         }
-        Thread.sleep(TimeUnit.SECONDS.toMillis(interval));
+        checkLogFailure(logMatcher);
+        long delay = schedule.nextDelay(System.currentTimeMillis());
+        if (delay < 0) {
+          throw new MojoExecutionException(method + ' ' + uri + " did not return " + status);
+        }
+        Thread.sleep(delay);
       }
     }
   }
@@ -259,16 +545,80 @@ public class PodmanContainerRun extends PodmanContainer {
     return interpolator;
   }
 
+  /** How a started container came to be running */
+  private enum Origin {
+    CREATED,
+    ADOPTED,
+    RESTORED
+  }
+
+  /** A container which has been started, but may not yet be ready */
+  private static class StartedContainer {
+    final ContainerConfig containerConfig;
+    final String containerId;
+    final Origin origin;
+    final String fingerprint;
+    final Map<String, String> portToPropertyName;
+    final LogMatcher logMatcher;
+    final long startTime;
+
+    StartedContainer(
+        ContainerConfig containerConfig,
+        String containerId,
+        Origin origin,
+        String fingerprint,
+        Map<String, String> portToPropertyName,
+        LogMatcher logMatcher,
+        long startTime) {
+      this.containerConfig = containerConfig;
+      this.containerId = containerId;
+      this.origin = origin;
+      this.fingerprint = fingerprint;
+      this.portToPropertyName = portToPropertyName;
+      this.logMatcher = logMatcher;
+      this.startTime = startTime;
+    }
+  }
+
+  @Data
+  static class ContainerInspect {
+
+    public HostConfig HostConfig;
+  }
+
   @Data
   static class HostConfig {
 
-    Map<String, List<PortBinding>> PortBindings;
+    public Map<String, List<PortBinding>> PortBindings;
+  }
+
+  @Data
+  static class ContainerSummary {
+
+    public String Id;
+    public List<String> Names;
+    public String State;
+    public Map<String, String> Labels;
+    public List<String> Networks;
+  }
+
+  @Data
+  static class ImageInspect {
+
+    public String Id;
+    public long Size;
+  }
+
+  @Data
+  static class PodInspect {
+
+    public String InfraContainerID;
   }
 
   @Data
   static class PortBinding {
 
-    String HostIp;
-    String HostPort;
+    public String HostIp;
+    public String HostPort;
   }
 }
@@ -0,0 +1,49 @@
+package org.honton.chas.podman.maven.plugin.container;
+
+import java.util.Random;
+
+/**
+ * Delays between readiness probes. Early probes are rapid; later delays grow exponentially with
+ * jitter until reaching the maximum delay. No delay extends beyond the deadline.
+ */
+class PollSchedule {
+
+  static final long INITIAL_MILLIS = 50;
+
+  private final long maxMillis;
+  private final long endTime;
+  private final Random random;
+  private long base = INITIAL_MILLIS;
+
+  /**
+   * Create a schedule
+   *
+   * @param maxMillis The maximum delay between probes
+   * @param endTime The deadline, in epoch milliseconds
+   * @param random The source of jitter
+   */
+  PollSchedule(long maxMillis, long endTime, Random random) {
+    this.maxMillis = Math.max(maxMillis, INITIAL_MILLIS);
+    this.endTime = endTime;
+    this.random = random;
+  }
+
+  /**
+   * The delay before the next probe
+   *
+   * @param now The current time, in epoch milliseconds
+   * @return Milliseconds to wait, or -1 if the deadline has passed
+   */
+  long nextDelay(long now) {
+    long remaining = endTime - now;
+    if (remaining <= 0) {
+      return -1;
+    }
+    long current = Math.min(base, maxMillis);
+    base = Math.min(base * 2, maxMillis);
+    // half fixed, half random, so concurrent pollers do not probe in lock step
+    long half = current / 2;
+    long delay = half + (long) (random.nextDouble() * (current - half));
+    return Math.min(delay, remaining);
+  }
+}
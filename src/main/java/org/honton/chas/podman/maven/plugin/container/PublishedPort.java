@@ -0,0 +1,48 @@
+package org.honton.chas.podman.maven.plugin.container;
+
+import java.util.Locale;
+import java.util.Set;
+import org.apache.maven.plugin.MojoExecutionException;
+
+/** A container port and its protocol, as written in the ports configuration */
+class PublishedPort {
+
+  private static final Set<String> PROTOCOLS = Set.of("tcp", "udp", "sctp");
+
+  final int port;
+  final String protocol;
+
+  private PublishedPort(int port, String protocol) {
+    this.port = port;
+    this.protocol = protocol;
+  }
+
+  /**
+   * Parse a container port
+   *
+   * @param value port[/protocol], where protocol is tcp, udp, or sctp; defaults to tcp
+   */
+  static PublishedPort parse(String value) throws MojoExecutionException {
+    String port = value.strip();
+    String protocol = "tcp";
+    int slash = port.indexOf('/');
+    if (slash >= 0) {
+      protocol = port.substring(slash + 1).toLowerCase(Locale.ROOT);
+      port = port.substring(0, slash);
+    }
+    if (!PROTOCOLS.contains(protocol)) {
+      throw new MojoExecutionException("Unsupported protocol in port " + value);
+    }
+    try {
+      return new PublishedPort(Integer.parseInt(port), protocol);
+    } catch (NumberFormatException e) {
+      throw new MojoExecutionException("Invalid container port " + value, e);
+    }
+  }
+
+  /** The key of the port in the inspect port bindings */
+  @Override
+  public String toString() {
+    return port + "/" + protocol;
+  }
+}
@@ -0,0 +1,138 @@
+package org.honton.chas.podman.maven.plugin.containerfile;
+
+import java.io.IOException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Mirror files into a directory of the build context. A file whose size and modification time are
+ * unchanged is left alone. A new or changed file is hard linked to its source when the source is
+ * within the build directory, otherwise it is copied; a shared file such as a jar in the local
+ * repository is never linked, so a later write into the context cannot reach it. Linking falls back
+ * to a copy when the source is on another device or the file system does not support links. Files
+ * which are no longer staged are removed.
+ */
+class ContextStager {
+
+  private final Path linkable;
+  private int linked;
+  private int copied;
+  private int unchanged;
+  private int removed;
+
+  /**
+   * @param linkable The directory whose files may be hard linked, usually the build directory
+   */
+  ContextStager(Path linkable) {
+    this.linkable = linkable.toAbsolutePath().normalize();
+  }
+
+  /**
+   * Mirror files into a directory
+   *
+   * @param dir The directory to populate
+   * @param files Map of path relative to dir to source file
+   */
+  void stage(Path dir, Map<String, Path> files) throws IOException {
+    Set<Path> targets = new HashSet<>();
+    for (Map.Entry<String, Path> entry : files.entrySet()) {
+      Path target = dir.resolve(entry.getKey());
+      targets.add(target);
+      stageFile(entry.getValue(), target);
+    }
+    removeOthers(dir, targets);
+  }
+
+  private void stageFile(Path source, Path target) throws IOException {
+    BasicFileAttributes sourceAttributes = Files.readAttributes(source, BasicFileAttributes.class);
+    try {
+      BasicFileAttributes targetAttributes =
+          Files.readAttributes(target, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+      if (targetAttributes.isRegularFile()
+          && targetAttributes.size() == sourceAttributes.size()
+          && targetAttributes.lastModifiedTime().equals(sourceAttributes.lastModifiedTime())) {
+        ++unchanged;
+        return;
+      }
+      if (targetAttributes.isDirectory()) {
+        deleteTree(target);
+      } else {
+        Files.delete(target);
+      }
+    } catch (NoSuchFileException e) {
+      Files.createDirectories(target.getParent());
+    }
+
+    if (source.toAbsolutePath().normalize().startsWith(linkable)) {
+      try {
+        Files.createLink(target, source);
+        ++linked;
+        return;
+      } catch (FileSystemException | UnsupportedOperationException e) {
+        // across devices, or no hard link support
+      }
+    }
+    Files.copy(source, target, StandardCopyOption.COPY_ATTRIBUTES);
+    ++copied;
+  }
+
+  private static void deleteTree(Path dir) throws IOException {
+    List<Path> paths;
+    try (Stream<Path> walk = Files.walk(dir)) {
+      // children before parents
+      paths = walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+    }
+    for (Path path : paths) {
+      Files.delete(path);
+    }
+  }
+
+  private void removeOthers(Path dir, Set<Path> targets) throws IOException {
+    if (!Files.isDirectory(dir)) {
+      return;
+    }
+    List<Path> paths;
+    try (Stream<Path> walk = Files.walk(dir)) {
+      // children before parents
+      paths = walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+    }
+    for (Path path : paths) {
+      if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+        try (Stream<Path> children = Files.list(path)) {
+          if (children.findAny().isPresent()) {
+            continue;
+          }
+        }
+      } else if (targets.contains(path)) {
+        continue;
+      } else {
+        ++removed;
+      }
+      Files.delete(path);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return linked
+        + " linked, "
+        + copied
+        + " copied, "
+        + unchanged
+        + " unchanged, "
+        + removed
+        + " removed";
+  }
+}
@@ -12,11 +12,18 @@ import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+import org.honton.chas.podman.maven.plugin.config.DependencyLayersConfig;
 import org.honton.chas.podman.maven.plugin.config.LayerConfig;
 import org.honton.chas.podman.maven.plugin.config.ShellOrExecConfig;
 
 /** Create a Containerfile. */
-@Mojo(name = "containerfile", defaultPhase = LifecyclePhase.PREPARE_PACKAGE, threadSafe = true)
+@Mojo(
+    name = "containerfile",
+    defaultPhase = LifecyclePhase.PREPARE_PACKAGE,
+    requiresDependencyResolution = ResolutionScope.RUNTIME,
+    threadSafe = true)
 public class CreateContainerfile extends AbstractMojo {
 
   /** Base image for subsequent instructions */
@@ -32,6 +39,12 @@ public class CreateContainerfile extends AbstractMojo {
   /** File layers to copy from the context into the image file system */
   @Parameter List<LayerConfig> layers;
 
+  /**
+   * Stage the project's runtime dependencies, resources, and classes into the context and copy them
+   * as separate layers, after any configured layers
+   */
+  @Parameter DependencyLayersConfig dependencyLayers;
+
   /** Label to be applied to image */
   @Parameter Map<String, String> labels;
 
@@ -56,6 +69,10 @@ public class CreateContainerfile extends AbstractMojo {
       readonly = true)
   File destFile;
 
+  // Current maven project
+  @Parameter(defaultValue = "${project}", readonly = true)
+  MavenProject project;
+
   public final void execute() throws MojoFailureException {
     try {
       doExecute();
@@ -74,6 +91,14 @@ public class CreateContainerfile extends AbstractMojo {
       layers.forEach(l -> writeLayer(sb, l));
     }
 
+    if (dependencyLayers != null) {
+      ContextStager stager = new ContextStager(Path.of(project.getBuild().getDirectory()));
+      new DependencyLayers(destFile.toPath().getParent(), dependencyLayers, stager)
+          .stage(project.getArtifacts(), Path.of(project.getBuild().getOutputDirectory()))
+          .forEach(l -> writeLayer(sb, l));
+      getLog().info("staged layers: " + stager);
+    }
+
     if (entrypoint != null) {
       writeShellOrExec(sb, "ENTRYPOINT ", entrypoint);
     }
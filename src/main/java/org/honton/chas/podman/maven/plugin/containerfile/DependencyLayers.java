@@ -0,0 +1,116 @@
+package org.honton.chas.podman.maven.plugin.containerfile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.apache.maven.artifact.Artifact;
+import org.honton.chas.podman.maven.plugin.config.DependencyLayersConfig;
+import org.honton.chas.podman.maven.plugin.config.LayerConfig;
+
+/**
+ * Stage the project's runtime artifacts into the context directory, split into layers ordered from
+ * least to most frequently changed: release dependencies, snapshot dependencies, resources, and
+ * classes. A code change then only invalidates the final layer.
+ */
+class DependencyLayers {
+
+  static final String DEPENDENCIES = "dependencies";
+  static final String SNAPSHOT_DEPENDENCIES = "snapshot-dependencies";
+  static final String RESOURCES = "resources";
+  static final String CLASSES = "classes";
+
+  private final Path contextDir;
+  private final DependencyLayersConfig config;
+  private final ContextStager stager;
+
+  DependencyLayers(Path contextDir, DependencyLayersConfig config, ContextStager stager) {
+    this.contextDir = contextDir;
+    this.config = config;
+    this.stager = stager;
+  }
+
+  /**
+   * Stage the files and describe the layers
+   *
+   * @param artifacts The resolved runtime artifacts of the project
+   * @param outputDirectory The project's compiled classes and resources
+   * @return The non-empty layers, in image order
+   */
+  List<LayerConfig> stage(Collection<Artifact> artifacts, Path outputDirectory) throws IOException {
+    List<Artifact> releases = new ArrayList<>();
+    List<Artifact> snapshots = new ArrayList<>();
+    for (Artifact artifact : artifacts) {
+      if (artifact.getFile() != null && artifact.getArtifactHandler().isAddedToClasspath()) {
+        (artifact.isSnapshot() ? snapshots : releases).add(artifact);
+      }
+    }
+
+    List<Path> resources = new ArrayList<>();
+    List<Path> classes = new ArrayList<>();
+    if (Files.isDirectory(outputDirectory)) {
+      try (Stream<Path> walk = Files.walk(outputDirectory)) {
+        walk.filter(Files::isRegularFile)
+            .forEach(p -> (p.toString().endsWith(".class") ? classes : resources).add(p));
+      }
+    }
+
+    List<LayerConfig> layers = new ArrayList<>();
+    String lib = config.dest + "/lib/";
+    String classDir = config.dest + "/classes/";
+    stageFlat(DEPENDENCIES, releases, lib, layers);
+    stageFlat(SNAPSHOT_DEPENDENCIES, snapshots, lib, layers);
+    stageTree(RESOURCES, outputDirectory, resources, classDir, layers);
+    stageTree(CLASSES, outputDirectory, classes, classDir, layers);
+    return layers;
+  }
+
+  private void stageFlat(
+      String name, List<Artifact> artifacts, String dest, List<LayerConfig> layers)
+      throws IOException {
+    Map<String, Path> files = new LinkedHashMap<>();
+    for (Artifact artifact : artifacts) {
+      Path file = artifact.getFile().toPath();
+      String fileName = file.getFileName().toString();
+      if (files.containsKey(fileName)) {
+        // same artifactId and version from different groups
+        fileName = artifact.getGroupId() + '-' + fileName;
+      }
+      files.put(fileName, file);
+    }
+    stageLayer(name, files, dest, layers);
+  }
+
+  private void stageTree(
+      String name, Path root, List<Path> sources, String dest, List<LayerConfig> layers)
+      throws IOException {
+    Map<String, Path> files = new LinkedHashMap<>();
+    for (Path file : sources) {
+      files.put(root.relativize(file).toString(), file);
+    }
+    stageLayer(name, files, dest, layers);
+  }
+
+  private void stageLayer(
+      String name, Map<String, Path> files, String dest, List<LayerConfig> layers)
+      throws IOException {
+    stager.stage(contextDir.resolve(name), files);
+    if (!files.isEmpty()) {
+      layers.add(layer(name, dest));
+    }
+  }
+
+  private LayerConfig layer(String name, String dest) {
+    LayerConfig layer = new LayerConfig();
+    layer.chown = config.chown;
+    layer.chmod = config.chmod;
+    layer.srcs = List.of(name + '/');
+    layer.dest = dest;
+    return layer;
+  }
+}
@@ -0,0 +1,51 @@
+package org.honton.chas.podman.maven.plugin.libpod;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/** Exchange requests with a libpod service listening on a tcp port */
+public class HttpClientTransport implements LibpodTransport {
+
+  private final HttpClient client;
+  private final String root;
+
+  /**
+   * Create a transport
+   *
+   * @param root The uri of the service root, i.e. http://host:port
+   */
+  public HttpClientTransport(URI root) {
+    this.root = root.toString().replaceFirst("/$", "");
+    client =
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+  }
+
+  @Override
+  public LibpodResponse exchange(String method, String path, byte[] body) throws IOException {
+    HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(root + path));
+    if (body != null) {
+      builder
+          .header("Content-Type", "application/json")
+          .method(method, HttpRequest.BodyPublishers.ofByteArray(body));
+    } else {
+      builder.method(method, HttpRequest.BodyPublishers.noBody());
+    }
+    try {
+      HttpResponse<InputStream> response =
+          client.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+      return new LibpodResponse(response.statusCode(), response.body(), null);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,418 @@
+package org.honton.chas.podman.maven.plugin.libpod;
+
+import com.fasterxml.jackson.jr.ob.JSON;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/** Client of the libpod REST service */
+public class LibpodClient {
+
+  private static final String API = "/v4.0.0/libpod";
+
+  private final LibpodTransport transport;
+  private final Consumer<String> requestLog;
+
+  /**
+   * Create a client
+   *
+   * @param transport The transport to the libpod service
+   * @param requestLog Consumer of a description of each request
+   */
+  public LibpodClient(LibpodTransport transport, Consumer<String> requestLog) {
+    this.transport = transport;
+    this.requestLog = requestLog;
+  }
+
+  /**
+   * Create the transport for a podman service url. Without an url, the CONTAINER_HOST environment
+   * variable or the default podman socket locations are used.
+   *
+   * @param url The podman service url, or null
+   * @return The transport
+   * @throws IOException when the url scheme is not supported
+   */
+  public static LibpodTransport transport(String url) throws IOException {
+    if (url == null) {
+      url = System.getenv("CONTAINER_HOST");
+    }
+    if (url == null) {
+      return SocketTransport.unix(defaultSocket());
+    }
+    URI uri = URI.create(url);
+    switch (uri.getScheme()) {
+      case "unix":
+        return SocketTransport.unix(Path.of(uri.getPath()));
+      case "tcp":
+        return new HttpClientTransport(URI.create("http://" + uri.getAuthority()));
+      case "http":
+      case "https":
+        return new HttpClientTransport(uri);
+      default:
+        throw new IOException("unsupported podman service url " + url);
+    }
+  }
+
+  private static Path defaultSocket() {
+    String runtimeDir = System.getenv("XDG_RUNTIME_DIR");
+    if (runtimeDir != null) {
+      Path socket = Path.of(runtimeDir, "podman", "podman.sock");
+      if (Files.exists(socket)) {
+        return socket;
+      }
+    }
+    return Path.of("/run/podman/podman.sock");
+  }
+
+  private static String encode(String value) {
+    return URLEncoder.encode(value, StandardCharsets.UTF_8);
+  }
+
+  private LibpodResponse exchange(String method, String path, Object body) throws IOException {
+    requestLog.accept(method + ' ' + path);
+    return transport.exchange(method, API + path, body != null ? JSON.std.asBytes(body) : null);
+  }
+
+  private static IOException failure(LibpodResponse response, String path) throws IOException {
+    String message = new String(response.getBody().readAllBytes(), StandardCharsets.UTF_8);
+    try {
+      Object cause = JSON.std.mapFrom(message).get("message");
+      if (cause != null) {
+        message = cause.toString();
+      }
+    } catch (IOException notJson) {
+      // use raw content
+    }
+    return new IOException(path + " => " + response.getStatus() + ' ' + message.strip());
+  }
+
+  private void execute(String method, String path, Object body) throws IOException {
+    try (LibpodResponse response = exchange(method, path, body)) {
+      if (response.getStatus() / 100 != 2) {
+        throw failure(response, path);
+      }
+      response.getBody().readAllBytes();
+    }
+  }
+
+  private <T> T execute(String method, String path, Object body, Class<T> type) throws IOException {
+    try (LibpodResponse response = exchange(method, path, body)) {
+      if (response.getStatus() / 100 != 2) {
+        throw failure(response, path);
+      }
+      return JSON.std.beanFrom(type, response.getBody());
+    }
+  }
+
+  /**
+   * Verify the service is reachable
+   *
+   * @throws IOException when the service does not respond
+   */
+  public void ping() throws IOException {
+    execute("GET", "/_ping", null);
+  }
+
+  /**
+   * Create a network
+   *
+   * @param name The network name
+   * @param driver The network driver, or null
+   * @return false if the network already exists
+   * @throws IOException when the network cannot be created
+   */
+  public boolean createNetwork(String name, String driver) throws IOException {
+    Map<String, Object> spec =
+        driver != null ? Map.of("name", name, "driver", driver) : Map.of("name", name);
+    try (LibpodResponse response = exchange("POST", "/networks/create", spec)) {
+      if (response.getStatus() == 409) {
+        return false;
+      }
+      if (response.getStatus() / 100 != 2) {
+        throw failure(response, "/networks/create");
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Remove a network
+   *
+   * @param name The network name
+   * @throws IOException when the network cannot be removed
+   */
+  public void removeNetwork(String name) throws IOException {
+    execute("DELETE", "/networks/" + encode(name), null);
+  }
+
+  /**
+   * Pull an image, if not already present
+   *
+   * @param reference The image reference
+   * @throws IOException when the image cannot be pulled
+   */
+  public void pullImage(String reference) throws IOException {
+    String path = "/images/pull?policy=missing&quiet=true&reference=" + encode(reference);
+    try (LibpodResponse response = exchange("POST", path, null)) {
+      if (response.getStatus() / 100 != 2) {
+        throw failure(response, path);
+      }
+      // progress is a stream of json objects; failure is reported within the stream
+      String progress = new String(response.getBody().readAllBytes(), StandardCharsets.UTF_8);
+      int error = progress.indexOf("\"error\"");
+      if (error >= 0) {
+        throw new IOException("pull " + reference + " failed: " + progress.substring(error));
+      }
+    }
+  }
+
+  /**
+   * Check whether an image is present
+   *
+   * @param reference The image reference or id
+   * @return true if the image is present
+   * @throws IOException when the presence cannot be determined
+   */
+  public boolean imageExists(String reference) throws IOException {
+    String path = "/images/" + encode(reference) + "/exists";
+    try (LibpodResponse response = exchange("GET", path, null)) {
+      if (response.getStatus() != 404 && response.getStatus() / 100 != 2) {
+        throw failure(response, path);
+      }
+      response.getBody().readAllBytes();
+      return response.getStatus() != 404;
+    }
+  }
+
+  /**
+   * Inspect an image
+   *
+   * @param reference The image reference or id
+   * @param type The bean type to bind the inspection results
+   * @return The inspection results
+   * @throws IOException when the image cannot be inspected
+   */
+  public <T> T inspectImage(String reference, Class<T> type) throws IOException {
+    return execute("GET", "/images/" + encode(reference) + "/json", null, type);
+  }
+
+  /**
+   * List the containers, running or not, whose name matches a pattern
+   *
+   * @param namePattern The regular expression matching container names
+   * @param type The bean type to bind each container's summary
+   * @return The container summaries
+   * @throws IOException when the containers cannot be listed
+   */
+  public <T> List<T> listContainers(String namePattern, Class<T> type) throws IOException {
+    String filters = JSON.std.asString(Map.of("name", List.of(namePattern)));
+    String path = "/containers/json?all=true&filters=" + encode(filters);
+    try (LibpodResponse response = exchange("GET", path, null)) {
+      if (response.getStatus() / 100 != 2) {
+        throw failure(response, path);
+      }
+      return JSON.std.listOfFrom(type, response.getBody());
+    }
+  }
+
+  /**
+   * Create a container
+   *
+   * @param spec The container specification
+   * @return The container id
+   * @throws IOException when the container cannot be created
+   */
+  public String createContainer(Map<String, Object> spec) throws IOException {
+    return execute("POST", "/containers/create", spec, CreateResponse.class).Id;
+  }
+
+  /**
+   * Start a container
+   *
+   * @param id The container id or name
+   * @throws IOException when the container cannot be started
+   */
+  public void startContainer(String id) throws IOException {
+    execute("POST", "/containers/" + encode(id) + "/start", null);
+  }
+
+  /**
+   * Inspect a container
+   *
+   * @param id The container id or name
+   * @param type The bean type to bind the inspection results
+   * @return The inspection results
+   * @throws IOException when the container cannot be inspected
+   */
+  public <T> T inspectContainer(String id, Class<T> type) throws IOException {
+    return execute("GET", "/containers/" + encode(id) + "/json", null, type);
+  }
+
+  /**
+   * Follow the logs of a container until the container exits
+   *
+   * @param id The container id or name
+   * @param timestamps Prefix each line with its timestamp
+   * @param lineConsumer Consumer of each line
+   * @throws IOException when the logs cannot be read
+   */
+  public void followLogs(String id, boolean timestamps, Consumer<String> lineConsumer)
+      throws IOException {
+    String path =
+        "/containers/"
+            + encode(id)
+            + "/logs?follow=true&stdout=true&stderr=true&timestamps="
+            + timestamps;
+    try (LibpodResponse response = exchange("GET", path, null)) {
+      if (response.getStatus() / 100 != 2) {
+        throw failure(response, path);
+      }
+      new LogReader(response.getBody(), lineConsumer).read();
+    }
+  }
+
+  /**
+   * Remove a container, stopping it if needed
+   *
+   * @param id The container id or name
+   * @param timeout Seconds to wait for container to stop before killing it, or null
+   * @throws IOException when the container cannot be removed
+   */
+  public void removeContainer(String id, Integer timeout) throws IOException {
+    String path = "/containers/" + encode(id) + "?force=true";
+    if (timeout != null) {
+      path += "&timeout=" + timeout;
+    }
+    execute("DELETE", path, null);
+  }
+
+  /**
+   * Create a pod
+   *
+   * @param spec The pod specification
+   * @return The pod id
+   * @throws IOException when the pod cannot be created
+   */
+  public String createPod(Map<String, Object> spec) throws IOException {
+    return execute("POST", "/pods/create", spec, CreateResponse.class).Id;
+  }
+
+  /**
+   * Start the containers of a pod
+   *
+   * @param name The pod name or id
+   * @throws IOException when the pod cannot be started
+   */
+  public void startPod(String name) throws IOException {
+    execute("POST", "/pods/" + encode(name) + "/start", null);
+  }
+
+  /**
+   * Inspect a pod
+   *
+   * @param name The pod name or id
+   * @param type The bean type to bind the inspection results
+   * @return The inspection results
+   * @throws IOException when the pod cannot be inspected
+   */
+  public <T> T inspectPod(String name, Class<T> type) throws IOException {
+    return execute("GET", "/pods/" + encode(name) + "/json", null, type);
+  }
+
+  /**
+   * Remove a pod and its containers, stopping each container within its own stop timeout
+   *
+   * @param name The pod name or id
+   * @throws IOException when the pod cannot be removed
+   */
+  public void removePod(String name) throws IOException {
+    execute("DELETE", "/pods/" + encode(name) + "?force=true", null);
+  }
+
+  static class CreateResponse {
+    public String Id;
+  }
+
+  /**
+   * Split log content into lines. Logs of containers without a tty are multiplexed; each frame has
+   * an eight byte header of stream id, three zero bytes, and four byte big-endian length.
+   */
+  static class LogReader {
+    private final InputStream is;
+    private final Consumer<String> lineConsumer;
+    private final ByteArrayOutputStream[] lines = new ByteArrayOutputStream[3];
+
+    LogReader(InputStream is, Consumer<String> lineConsumer) {
+      this.is = is;
+      this.lineConsumer = lineConsumer;
+    }
+
+    void read() throws IOException {
+      byte[] header = is.readNBytes(8);
+      if (isFrameHeader(header)) {
+        do {
+          int length =
+              (header[4] & 0xff) << 24
+                  | (header[5] & 0xff) << 16
+                  | (header[6] & 0xff) << 8
+                  | (header[7] & 0xff);
+          append(header[0], is.readNBytes(length));
+          header = is.readNBytes(8);
+        } while (header.length == 8);
+      } else {
+        append(0, header);
+        byte[] buffer = new byte[8192];
+        for (int read = is.read(buffer); read >= 0; read = is.read(buffer)) {
+          append(0, buffer, read);
+        }
+      }
+      for (int stream = 0; stream < lines.length; ++stream) {
+        if (lines[stream] != null && lines[stream].size() > 0) {
+          emit(stream);
+        }
+      }
+    }
+
+    private static boolean isFrameHeader(byte[] header) {
+      return header.length == 8
+          && header[0] >= 0
+          && header[0] <= 2
+          && header[1] == 0
+          && header[2] == 0
+          && header[3] == 0;
+    }
+
+    private void append(int stream, byte[] content) {
+      append(stream, content, content.length);
+    }
+
+    private void append(int stream, byte[] content, int length) {
+      if (lines[stream] == null) {
+        lines[stream] = new ByteArrayOutputStream(128);
+      }
+      int start = 0;
+      for (int i = 0; i < length; ++i) {
+        if (content[i] == '\n') {
+          lines[stream].write(content, start, i - start);
+          emit(stream);
+          start = i + 1;
+        }
+      }
+      lines[stream].write(content, start, length - start);
+    }
+
+    private void emit(int stream) {
+      String line = lines[stream].toString(StandardCharsets.UTF_8);
+      lines[stream].reset();
+      lineConsumer.accept(line.endsWith("\r") ? line.substring(0, line.length() - 1) : line);
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package org.honton.chas.podman.maven.plugin.libpod;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/** Response from the libpod service */
+@RequiredArgsConstructor
+public class LibpodResponse implements Closeable {
+
+  /** The http status code */
+  @Getter private final int status;
+
+  /** The response content */
+  @Getter private final InputStream body;
+
+  /** The underlying connection, or null */
+  private final Closeable connection;
+
+  @Override
+  public void close() throws IOException {
+    try {
+      body.close();
+    } finally {
+      if (connection != null) {
+        connection.close();
+      }
+    }
+  }
+}
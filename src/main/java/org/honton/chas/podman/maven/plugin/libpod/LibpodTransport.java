@@ -0,0 +1,18 @@
+package org.honton.chas.podman.maven.plugin.libpod;
+
+import java.io.IOException;
+
+/** Exchange http requests with the libpod service */
+public interface LibpodTransport {
+
+  /**
+   * Send a request to the libpod service
+   *
+   * @param method The http method
+   * @param path The request path and query, relative to the service root
+   * @param body The json request body, or null
+   * @return The response, which must be closed by the caller
+   * @throws IOException when the service cannot be reached
+   */
+  LibpodResponse exchange(String method, String path, byte[] body) throws IOException;
+}
@@ -0,0 +1,234 @@
+package org.honton.chas.podman.maven.plugin.libpod;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Exchange http/1.1 requests with the libpod service over a socket channel. This is used for the
+ * unix domain socket, which the jdk http client does not support.
+ */
+public class SocketTransport implements LibpodTransport {
+
+  private final SocketAddress address;
+
+  /**
+   * Create a transport
+   *
+   * @param address The address of the service socket
+   */
+  public SocketTransport(SocketAddress address) {
+    this.address = address;
+  }
+
+  /**
+   * Create a transport to a unix domain socket. Unix domain socket channels require java 16.
+   *
+   * @param socket The path of the socket
+   * @return The transport
+   * @throws IOException when unix domain sockets are not supported
+   */
+  public static SocketTransport unix(Path socket) throws IOException {
+    try {
+      Object address =
+          Class.forName("java.net.UnixDomainSocketAddress")
+              .getMethod("of", Path.class)
+              .invoke(null, socket);
+      return new SocketTransport((SocketAddress) address);
+    } catch (ReflectiveOperationException e) {
+      throw new IOException("unix domain sockets require java 16 or later", e);
+    }
+  }
+
+  @Override
+  public LibpodResponse exchange(String method, String path, byte[] body) throws IOException {
+    SocketChannel channel = SocketChannel.open(address);
+    try {
+      writeRequest(Channels.newOutputStream(channel), method, path, body);
+      return readResponse(new BufferedInputStream(Channels.newInputStream(channel)), channel);
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  private static void writeRequest(OutputStream os, String method, String path, byte[] body)
+      throws IOException {
+    StringBuilder head =
+        new StringBuilder()
+            .append(method)
+            .append(' ')
+            .append(path)
+            .append(" HTTP/1.1\r\nHost: libpod\r\nConnection: close\r\n");
+    if (body != null) {
+      head.append("Content-Type: application/json\r\n");
+    }
+    head.append("Content-Length: ").append(body != null ? body.length : 0).append("\r\n\r\n");
+    os.write(head.toString().getBytes(StandardCharsets.US_ASCII));
+    if (body != null) {
+      os.write(body);
+    }
+    os.flush();
+  }
+
+  private static LibpodResponse readResponse(InputStream is, SocketChannel channel)
+      throws IOException {
+    String statusLine = readLine(is);
+    String[] parts = statusLine.split(" ", 3);
+    if (parts.length < 2 || !parts[0].startsWith("HTTP/")) {
+      throw new IOException("Invalid http status line: " + statusLine);
+    }
+    int status = Integer.parseInt(parts[1]);
+
+    long contentLength = -1;
+    boolean chunked = false;
+    for (String header = readLine(is); !header.isEmpty(); header = readLine(is)) {
+      int colon = header.indexOf(':');
+      if (colon > 0) {
+        String name = header.substring(0, colon).strip().toLowerCase(Locale.ROOT);
+        String value = header.substring(colon + 1).strip();
+        if (name.equals("content-length")) {
+          contentLength = Long.parseLong(value);
+        } else if (name.equals("transfer-encoding")) {
+          chunked = value.toLowerCase(Locale.ROOT).contains("chunked");
+        }
+      }
+    }
+
+    InputStream content;
+    if (status == 204 || status == 304) {
+      content = InputStream.nullInputStream();
+    } else if (chunked) {
+      content = new ChunkedInputStream(is);
+    } else if (contentLength >= 0) {
+      content = new LengthInputStream(is, contentLength);
+    } else {
+      content = is;
+    }
+    return new LibpodResponse(status, content, channel);
+  }
+
+  private static String readLine(InputStream is) throws IOException {
+    ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+    for (; ; ) {
+      int c = is.read();
+      if (c < 0) {
+        throw new EOFException("Connection closed by libpod service");
+      }
+      if (c == '\n') {
+        break;
+      }
+      if (c != '\r') {
+        line.write(c);
+      }
+    }
+    return line.toString(StandardCharsets.US_ASCII);
+  }
+
+  /** Content delimited by Content-Length header */
+  private static class LengthInputStream extends FilterInputStream {
+    private long remaining;
+
+    LengthInputStream(InputStream in, long length) {
+      super(in);
+      remaining = length;
+    }
+
+    @Override
+    public int read() throws IOException {
+      if (remaining <= 0) {
+        return -1;
+      }
+      int c = in.read();
+      if (c >= 0) {
+        --remaining;
+      }
+      return c;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (remaining <= 0) {
+        return -1;
+      }
+      int read = in.read(b, off, (int) Math.min(len, remaining));
+      if (read > 0) {
+        remaining -= read;
+      }
+      return read;
+    }
+  }
+
+  /** Content delimited by Transfer-Encoding: chunked */
+  private static class ChunkedInputStream extends FilterInputStream {
+    private long remaining;
+    private boolean eof;
+
+    ChunkedInputStream(InputStream in) {
+      super(in);
+    }
+
+    private boolean nextChunk() throws IOException {
+      if (eof) {
+        return false;
+      }
+      if (remaining == 0) {
+        String size = readLine(in);
+        if (size.isEmpty()) {
+          // CRLF which terminates previous chunk
+          size = readLine(in);
+        }
+        int extension = size.indexOf(';');
+        remaining = Long.parseLong(extension < 0 ? size : size.substring(0, extension), 16);
+        if (remaining == 0) {
+          // consume trailers
+          while (!readLine(in).isEmpty()) {
+            // ignore trailer
+          }
+          eof = true;
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+      if (!nextChunk()) {
+        return -1;
+      }
+      int c = in.read();
+      if (c >= 0) {
+        --remaining;
+      }
+      return c;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (!nextChunk()) {
+        return -1;
+      }
+      int read = in.read(b, off, (int) Math.min(len, remaining));
+      if (read > 0) {
+        remaining -= read;
+      }
+      return read;
+    }
+
+    @Override
+    public int available() throws IOException {
+      return eof ? 0 : (int) Math.min(in.available(), remaining);
+    }
+  }
+}
@@ -1,6 +1,15 @@
 package org.honton.chas.podman.maven.plugin.push;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
@@ -16,11 +25,244 @@ import org.honton.chas.podman.maven.plugin.cmdline.CommandLine;
 @Mojo(name = "push", defaultPhase = LifecyclePhase.DEPLOY, threadSafe = true)
 public class PodmanPush extends PodmanGoal {
 
+  private static final long INITIAL_RETRY_MILLIS = 1000;
+
   /** Fully qualified image name containing registry prefix, repository name, and version */
-  @Parameter(required = true)
-  String image;
+  @Parameter String image;
+
+  /** Additional fully qualified image names to push */
+  @Parameter List<String> images;
+
+  /** Additional tags applied to and pushed with each image */
+  @Parameter List<String> tags;
+
+  /** Maximum number of concurrent pushes */
+  @Parameter(property = "podman.push.parallelism", defaultValue = "4")
+  int parallelism;
+
+  /** Number of times a failed push is retried, with exponential backoff */
+  @Parameter(property = "podman.push.retries", defaultValue = "3")
+  int retries;
+
+  /** Skip pushing an image whose manifest in the registry already references the local image */
+  @Parameter(property = "podman.push.skipExisting", defaultValue = "true")
+  boolean skipExisting;
+
+  private RegistryClient registryClient;
 
   protected final void doExecute() throws IOException, MojoExecutionException {
-    executeCommand(new CommandLine(this).addCmd("push").addParameter(image));
+    registryClient = new RegistryClient(RegistryClient.loadAuths());
+    Set<String> primaries = new LinkedHashSet<>();
+    if (image != null) {
+      primaries.add(image);
+    }
+    if (images != null) {
+      primaries.addAll(images);
+    }
+    if (primaries.isEmpty()) {
+      throw new MojoExecutionException("No image to push");
+    }
+
+    Map<String, String> tagged = new LinkedHashMap<>();
+    if (tags != null) {
+      primaries.forEach(primary -> tags.forEach(tag -> tagged.put(withTag(primary, tag), primary)));
+      tagged.keySet().removeAll(primaries);
+    }
+
+    Map<String, Exception> failures = new ConcurrentSkipListMap<>();
+    pushAll(primaries, Map.of(), failures);
+
+    // a tag of an already pushed image only needs its manifest in the registry
+    List<String> additional = new ArrayList<>();
+    tagged.forEach(
+        (reference, primary) -> {
+          if (!failures.containsKey(primary)) {
+            additional.add(reference);
+          }
+        });
+    for (String reference : additional) {
+      executeCommand(
+          new CommandLine(this)
+              .addCmd("tag")
+              .addParameter(tagged.get(reference))
+              .addParameter(reference));
+    }
+    pushAll(additional, tagged, failures);
+
+    if (!failures.isEmpty()) {
+      failures.forEach((reference, e) -> getLog().error(reference + " failed: " + e.getMessage()));
+      throw new MojoExecutionException("Push failed for " + failures.keySet());
+    }
+  }
+
+  /**
+   * Push references concurrently
+   *
+   * @param references The references to push
+   * @param tagged Map of additional tag to the pushed reference it tags
+   * @param failures Collects the failure of each reference
+   */
+  private void pushAll(
+      Collection<String> references, Map<String, String> tagged, Map<String, Exception> failures)
+      throws IOException, MojoExecutionException {
+    if (!references.isEmpty()) {
+      forEachConcurrently(
+          references,
+          parallelism,
+          reference -> {
+            try {
+              String primary = tagged.get(reference);
+              if (primary == null || !tagInRegistry(primary, reference)) {
+                push(reference);
+              }
+            } catch (MojoExecutionException | IOException | RuntimeException e) {
+              failures.put(reference, e);
+            }
+          });
+    }
+  }
+
+  private void push(String reference) throws MojoExecutionException, IOException {
+    long startTime = System.currentTimeMillis();
+    String[] idAndSize = inspect(reference);
+    if (idAndSize != null && isInRegistry(reference, idAndSize[0])) {
+      getLog().info(reference + " is unchanged and present in registry, skipping push");
+      return;
+    }
+
+    for (int attempt = 0; ; ++attempt) {
+      PushProgress progress = new PushProgress(line -> getLog().info(reference + ": " + line));
+      int[] exitCode = new int[1];
+      executeCommand(
+          new CommandLine(this).addCmd("push").addParameter(reference).getCommand(),
+          null,
+          progress,
+          progress,
+          (code, stderr) -> exitCode[0] = code);
+      if (exitCode[0] == 0) {
+        getLog()
+            .info(
+                reference
+                    + " pushed in "
+                    + (System.currentTimeMillis() - startTime)
+                    + " ms; "
+                    + progress.getUploaded()
+                    + " of "
+                    + progress.getBlobs()
+                    + " blobs uploaded, image size "
+                    + (idAndSize != null ? idAndSize[1] : "unknown")
+                    + " bytes");
+        return;
+      }
+      if (attempt >= retries) {
+        throw new MojoExecutionException("podman exit value: " + exitCode[0]);
+      }
+      long delay = INITIAL_RETRY_MILLIS << attempt;
+      getLog().warn(reference + " push failed, retrying in " + delay + " ms");
+      try {
+        TimeUnit.MILLISECONDS.sleep(delay);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new MojoExecutionException("interrupted", e);
+      }
+    }
+  }
+
+  /**
+   * Put the registry's manifest of a pushed reference under an additional tag. This avoids a
+   * further podman push, which would upload the manifest after checking each blob.
+   *
+   * @return false if the registry cannot be updated directly
+   */
+  private boolean tagInRegistry(String primary, String reference) {
+    long startTime = System.currentTimeMillis();
+    try {
+      if (registryClient.copyManifest(primary, reference)) {
+        getLog()
+            .info(
+                reference
+                    + " tagged in registry in "
+                    + (System.currentTimeMillis() - startTime)
+                    + " ms");
+        return true;
+      }
+    } catch (IOException e) {
+      getLog().debug(reference + " registry tag failed: " + e.getMessage());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return false;
+  }
+
+  /**
+   * Check whether the registry's manifest of the reference already references the local image. The
+   * local image id is the digest of the image configuration, which a push does not change.
+   */
+  private boolean isInRegistry(String reference, String imageId) {
+    if (!skipExisting) {
+      return false;
+    }
+    try {
+      String remote = registryClient.configDigest(reference);
+      getLog().debug(reference + " is image " + imageId + ", registry has " + remote);
+      return remote != null && remote.equals(imageDigest(imageId));
+    } catch (IOException e) {
+      getLog().debug(reference + " registry lookup failed: " + e.getMessage());
+      return false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  /**
+   * Inspect the local image
+   *
+   * @return The image id and size, or null if the image cannot be inspected
+   */
+  private String[] inspect(String reference) throws MojoExecutionException, IOException {
+    StringBuilder output = new StringBuilder();
+    int[] exitCode = new int[1];
+    executeCommand(
+        new CommandLine(this)
+            .addCmd("image")
+            .addParameter("inspect")
+            .addParameter("--format")
+            .addParameter("{{.Id}} {{.Size}}")
+            .addParameter(reference)
+            .getCommand(),
+        null,
+        output::append,
+        line -> getLog().debug(line),
+        (code, stderr) -> exitCode[0] = code);
+    // a manifest list is not an image
+    String[] idAndSize = output.toString().strip().split(" ");
+    return exitCode[0] == 0 && idAndSize.length == 2 ? idAndSize : null;
+  }
+
+  /**
+   * The digest form of a local image id
+   *
+   * @param imageId The image id, with or without algorithm prefix
+   * @return The image id prefixed with its algorithm
+   */
+  static String imageDigest(String imageId) {
+    return imageId.contains(":") ? imageId : "sha256:" + imageId;
+  }
+
+  /**
+   * Replace the tag of an image name
+   *
+   * @param image The image name, with or without tag or digest
+   * @param tag The new tag
+   * @return The image name, without digest, with the new tag
+   */
+  static String withTag(String image, String tag) {
+    int at = image.indexOf('@');
+    if (at >= 0) {
+      image = image.substring(0, at);
+    }
+    int colon = image.lastIndexOf(':');
+    return (colon > image.lastIndexOf('/') ? image.substring(0, colon) : image) + ':' + tag;
   }
 }
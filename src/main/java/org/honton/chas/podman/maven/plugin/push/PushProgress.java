@@ -0,0 +1,49 @@
+package org.honton.chas.podman.maven.plugin.push;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/** Tally the blobs reported by podman push, distinguishing uploaded from already present blobs */
+class PushProgress implements Consumer<String> {
+
+  private static final Pattern BLOB = Pattern.compile("Copying blob (?:sha256:)?([0-9a-f]+)");
+
+  private final Consumer<String> delegate;
+  private final Set<String> blobs = new HashSet<>();
+  private final Set<String> skipped = new HashSet<>();
+
+  /**
+   * Create a tally
+   *
+   * @param delegate Receives each line of output
+   */
+  PushProgress(Consumer<String> delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public synchronized void accept(String line) {
+    Matcher matcher = BLOB.matcher(line);
+    if (matcher.find()) {
+      String blob = matcher.group(1);
+      blobs.add(blob);
+      if (line.contains("skipped") || line.contains("already exists")) {
+        skipped.add(blob);
+      }
+    }
+    delegate.accept(line);
+  }
+
+  /** The number of blobs in the image */
+  synchronized int getBlobs() {
+    return blobs.size();
+  }
+
+  /** The number of blobs uploaded */
+  synchronized int getUploaded() {
+    return blobs.size() - skipped.size();
+  }
+}
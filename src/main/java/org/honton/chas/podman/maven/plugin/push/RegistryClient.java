@@ -0,0 +1,301 @@
+package org.honton.chas.podman.maven.plugin.push;
+
+import com.fasterxml.jackson.jr.ob.JSON;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Minimal registry v2 client, used to look up the image configuration of a remote manifest and to
+ * tag a pushed manifest
+ */
+class RegistryClient {
+
+  private static final String ACCEPT =
+      "application/vnd.oci.image.manifest.v1+json,"
+          + "application/vnd.oci.image.index.v1+json,"
+          + "application/vnd.docker.distribution.manifest.v2+json,"
+          + "application/vnd.docker.distribution.manifest.list.v2+json";
+
+  private static final Pattern CHALLENGE_PARAMETER = Pattern.compile("(\\w+)=\"([^\"]*)\"");
+
+  private final HttpClient client =
+      HttpClient.newBuilder()
+          .connectTimeout(Duration.ofSeconds(10))
+          .followRedirects(HttpClient.Redirect.NORMAL)
+          .build();
+
+  private final Map<String, String> auths;
+
+  /**
+   * Create a client
+   *
+   * @param auths Map of registry host to base64 encoded user:password
+   */
+  RegistryClient(Map<String, String> auths) {
+    this.auths = auths;
+  }
+
+  /**
+   * Look up the digest of the image configuration of a remote manifest. The configuration digest is
+   * the local image id, and is not changed by a push.
+   *
+   * @param reference The image reference, registry/repository:tag
+   * @return The configuration digest, or null if the registry does not have the manifest or the
+   *     manifest is a manifest list
+   */
+  String configDigest(String reference) throws IOException, InterruptedException {
+    Reference ref = Reference.parse(reference);
+    HttpRequest.Builder builder =
+        HttpRequest.newBuilder(ref.manifestUri())
+            .timeout(Duration.ofSeconds(30))
+            .header("Accept", ACCEPT)
+            .GET();
+    HttpResponse<String> response =
+        send(builder, ref, "pull", HttpResponse.BodyHandlers.ofString());
+    if (response.statusCode() != 200) {
+      return null;
+    }
+    Object config = JSON.std.mapFrom(response.body()).get("config");
+    if (!(config instanceof Map)) {
+      return null;
+    }
+    Object digest = ((Map<?, ?>) config).get("digest");
+    return digest != null ? digest.toString() : null;
+  }
+
+  /**
+   * Put the manifest of one reference under the tag of another reference in the same repository.
+   * The manifest's blobs are already in the repository, so nothing else is uploaded.
+   *
+   * @param source The pushed image reference, registry/repository:tag or registry/repository@digest
+   * @param target The reference to create, registry/repository:tag
+   * @return false if the references are in different repositories or the source manifest is absent
+   * @throws IOException when the registry refuses the manifest
+   */
+  boolean copyManifest(String source, String target) throws IOException, InterruptedException {
+    Reference from = Reference.parse(source);
+    Reference to = Reference.parse(target);
+    if (!from.registry.equals(to.registry) || !from.repository.equals(to.repository)) {
+      return false;
+    }
+    HttpResponse<byte[]> manifest =
+        send(
+            HttpRequest.newBuilder(from.manifestUri())
+                .timeout(Duration.ofSeconds(30))
+                .header("Accept", ACCEPT)
+                .GET(),
+            from,
+            "pull",
+            HttpResponse.BodyHandlers.ofByteArray());
+    if (manifest.statusCode() != 200) {
+      return false;
+    }
+    String mediaType =
+        manifest.headers().firstValue("Content-Type").orElse("application/json").strip();
+    HttpResponse<String> response =
+        send(
+            HttpRequest.newBuilder(to.manifestUri())
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", mediaType)
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(manifest.body())),
+            to,
+            "pull,push",
+            HttpResponse.BodyHandlers.ofString());
+    if (response.statusCode() / 100 != 2) {
+      throw new IOException(
+          "PUT " + to.manifestUri() + " => " + response.statusCode() + ' ' + response.body());
+    }
+    return true;
+  }
+
+  /** Send a request, answering an authentication challenge once */
+  private <T> HttpResponse<T> send(
+      HttpRequest.Builder builder,
+      Reference ref,
+      String actions,
+      HttpResponse.BodyHandler<T> bodyHandler)
+      throws IOException, InterruptedException {
+    HttpResponse<T> response = client.send(builder.build(), bodyHandler);
+    if (response.statusCode() == 401) {
+      String authorization =
+          authorize(response.headers().firstValue("WWW-Authenticate").orElse(""), ref, actions);
+      if (authorization != null) {
+        response = client.send(builder.header("Authorization", authorization).build(), bodyHandler);
+      }
+    }
+    return response;
+  }
+
+  /**
+   * Answer the authentication challenge with basic credentials or a bearer token
+   *
+   * @param actions The repository actions requested when the challenge does not name a scope
+   */
+  private String authorize(String challenge, Reference ref, String actions)
+      throws IOException, InterruptedException {
+    String basic = auths.get(ref.registry);
+    if (basic == null && ref.registry.equals("docker.io")) {
+      basic = auths.get("index.docker.io");
+    }
+    if (challenge.regionMatches(true, 0, "Basic", 0, 5)) {
+      return basic != null ? "Basic " + basic : null;
+    }
+    if (!challenge.regionMatches(true, 0, "Bearer", 0, 6)) {
+      return null;
+    }
+
+    Map<String, String> parameters = new HashMap<>();
+    Matcher matcher = CHALLENGE_PARAMETER.matcher(challenge);
+    while (matcher.find()) {
+      parameters.put(matcher.group(1), matcher.group(2));
+    }
+    String realm = parameters.get("realm");
+    if (realm == null) {
+      return null;
+    }
+    StringBuilder query = new StringBuilder();
+    if (parameters.containsKey("service")) {
+      query.append("service=").append(encode(parameters.get("service")));
+    }
+    String scope = parameters.getOrDefault("scope", "repository:" + ref.repository + ':' + actions);
+    query.append(query.length() > 0 ? "&" : "").append("scope=").append(encode(scope));
+
+    HttpRequest.Builder builder =
+        HttpRequest.newBuilder(URI.create(realm + (realm.contains("?") ? '&' : '?') + query))
+            .timeout(Duration.ofSeconds(30));
+    if (basic != null) {
+      builder.header("Authorization", "Basic " + basic);
+    }
+    HttpResponse<String> response =
+        client.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+    if (response.statusCode() != 200) {
+      return null;
+    }
+    Map<String, Object> body = JSON.std.mapFrom(response.body());
+    Object token = body.containsKey("token") ? body.get("token") : body.get("access_token");
+    return token != null ? "Bearer " + token : null;
+  }
+
+  private static String encode(String value) {
+    return URLEncoder.encode(value, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Read the credentials podman uses, from $REGISTRY_AUTH_FILE,
+   * $XDG_RUNTIME_DIR/containers/auth.json, ~/.config/containers/auth.json, or ~/.docker/config.json
+   *
+   * @return Map of registry host to base64 encoded user:password
+   */
+  static Map<String, String> loadAuths() {
+    Map<String, String> auths = new HashMap<>();
+    String home = System.getProperty("user.home");
+    String runtime = System.getenv("XDG_RUNTIME_DIR");
+    String explicit = System.getenv("REGISTRY_AUTH_FILE");
+    // later files take precedence
+    addAuths(auths, Path.of(home, ".docker", "config.json"));
+    addAuths(auths, Path.of(home, ".config", "containers", "auth.json"));
+    if (runtime != null) {
+      addAuths(auths, Path.of(runtime, "containers", "auth.json"));
+    }
+    if (explicit != null) {
+      addAuths(auths, Path.of(explicit));
+    }
+    return auths;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void addAuths(Map<String, String> auths, Path file) {
+    if (!Files.isRegularFile(file)) {
+      return;
+    }
+    try {
+      Object entries = JSON.std.mapFrom(Files.readString(file)).get("auths");
+      if (entries instanceof Map) {
+        ((Map<String, Object>) entries)
+            .forEach(
+                (registry, entry) -> {
+                  if (entry instanceof Map && ((Map<String, Object>) entry).get("auth") != null) {
+                    auths.put(
+                        registry.replaceFirst("^https?://", "").replaceFirst("/.*", ""),
+                        ((Map<String, Object>) entry).get("auth").toString());
+                  }
+                });
+      }
+    } catch (IOException e) {
+      // unreadable credentials only prevent the lookup
+    }
+  }
+
+  /** The parts of an image reference */
+  static class Reference {
+    final String registry;
+    final String repository;
+    final String tag; // or digest
+
+    private Reference(String registry, String repository, String tag) {
+      this.registry = registry;
+      this.repository = repository;
+      this.tag = tag;
+    }
+
+    /**
+     * Split an image reference
+     *
+     * @param reference [registry/]repository[:tag][@digest]
+     */
+    static Reference parse(String reference) {
+      String registry = "docker.io";
+      String digest = null;
+      int at = reference.indexOf('@');
+      if (at >= 0) {
+        digest = reference.substring(at + 1);
+        reference = reference.substring(0, at);
+      }
+      String remainder = reference;
+      int slash = reference.indexOf('/');
+      if (slash > 0) {
+        String first = reference.substring(0, slash);
+        if (first.contains(".") || first.contains(":") || first.equals("localhost")) {
+          registry = first;
+          remainder = reference.substring(slash + 1);
+        }
+      }
+      String tag = "latest";
+      int colon = remainder.lastIndexOf(':');
+      if (colon > remainder.lastIndexOf('/')) {
+        tag = remainder.substring(colon + 1);
+        remainder = remainder.substring(0, colon);
+      }
+      if (registry.equals("docker.io") && !remainder.contains("/")) {
+        remainder = "library/" + remainder;
+      }
+      return new Reference(registry, remainder, digest != null ? digest : tag);
+    }
+
+    /** The url of the manifest */
+    URI manifestUri() {
+      return URI.create(base() + "/v2/" + repository + "/manifests/" + tag);
+    }
+
+    /** The base url of the registry api; local registries are assumed to be plain http */
+    String base() {
+      if (registry.equals("docker.io")) {
+        return "https://registry-1.docker.io";
+      }
+      boolean local = registry.startsWith("localhost") || registry.startsWith("127.0.0.1");
+      return (local ? "http://" : "https://") + registry;
+    }
+  }
+}
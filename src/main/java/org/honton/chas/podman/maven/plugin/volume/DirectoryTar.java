@@ -0,0 +1,96 @@
+package org.honton.chas.podman.maven.plugin.volume;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.tar.TarConstants;
+
+/**
+ * Write a directory tree as a tar stream. Entries are produced as the tree is walked, so memory use
+ * is independent of the size of the tree.
+ */
+class DirectoryTar {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private DirectoryTar() {}
+
+  /**
+   * Write selected files of a directory tree as tar, along with their parent directories. Symbolic
+   * links are written as link entries rather than followed.
+   *
+   * @param root The directory whose contents are written; entry names are relative to root
+   * @param include Selects the files to write by relative name
+   * @param os The destination of the tar stream, which is closed
+   */
+  static void write(Path root, Predicate<String> include, OutputStream os) throws IOException {
+    List<Path> paths;
+    try (Stream<Path> walk = Files.walk(root)) {
+      paths = walk.skip(1).sorted().collect(Collectors.toList());
+    }
+    Set<String> files =
+        paths.stream()
+            .filter(path -> !Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS))
+            .map(path -> name(root, path))
+            .filter(include)
+            .collect(Collectors.toSet());
+    Set<String> directories = parents(files);
+
+    // the final tar block is only written on close
+    try (TarArchiveOutputStream tar =
+        new TarArchiveOutputStream(new BufferedOutputStream(os, BUFFER_SIZE))) {
+      tar.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+      tar.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+      for (Path path : paths) {
+        String name = name(root, path);
+        if (!files.contains(name) && !directories.contains(name)) {
+          continue;
+        }
+        TarArchiveEntry entry = entry(path, name);
+        tar.putArchiveEntry(entry);
+        if (Files.isRegularFile(path, LinkOption.NOFOLLOW_LINKS)) {
+          Files.copy(path, tar);
+        }
+        tar.closeArchiveEntry();
+      }
+    }
+  }
+
+  private static TarArchiveEntry entry(Path path, String name) throws IOException {
+    if (!Files.isSymbolicLink(path)) {
+      return new TarArchiveEntry(path, name, LinkOption.NOFOLLOW_LINKS);
+    }
+    // the link target may be absent, so describe the link without reading through it
+    TarArchiveEntry entry = new TarArchiveEntry(name, TarConstants.LF_SYMLINK);
+    entry.setLinkName(Files.readSymbolicLink(path).toString());
+    entry.setModTime(Files.getLastModifiedTime(path, LinkOption.NOFOLLOW_LINKS));
+    return entry;
+  }
+
+  private static String name(Path root, Path path) {
+    return root.relativize(path).toString().replace('\\', '/');
+  }
+
+  private static Set<String> parents(Set<String> files) {
+    Set<String> directories = new HashSet<>();
+    for (String file : files) {
+      for (int slash = file.lastIndexOf('/');
+          slash > 0 && directories.add(file.substring(0, slash));
+          slash = file.lastIndexOf('/', slash - 1)) {
+        // add each ancestor until one is already present
+      }
+    }
+    return directories;
+  }
+}
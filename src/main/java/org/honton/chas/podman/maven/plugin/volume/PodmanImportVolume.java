@@ -3,13 +3,12 @@ package org.honton.chas.podman.maven.plugin.volume;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Set;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
-import org.codehaus.plexus.archiver.tar.TarArchiver;
-import org.codehaus.plexus.archiver.util.DefaultFileSet;
 import org.honton.chas.podman.maven.plugin.PodmanGoal;
 import org.honton.chas.podman.maven.plugin.cmdline.CommandLine;
 
@@ -25,39 +24,92 @@ public class PodmanImportVolume extends PodmanGoal {
   @Parameter(required = true)
   String volume;
 
-  /** Contents to transfer to volume. This may be a tar file or a directory */
+  /**
+   * Contents to transfer to volume. This may be a tar file or a directory. From a directory, the
+   * files with an extension in the {@code <artifactId>} subdirectory tree are transferred.
+   */
   @Parameter(required = true)
   File src;
 
+  /**
+   * Import only the files that changed since the prior import, and skip the import when nothing
+   * changed
+   */
+  @Parameter(property = "podman.volume.incremental", defaultValue = "true")
+  boolean incremental;
+
+  /** Directory for the manifests of prior imports */
+  @Parameter(defaultValue = "${project.build.directory}/podman", required = true, readonly = true)
+  File stateDir;
+
   @Parameter(defaultValue = "${project}", required = true, readonly = true)
   MavenProject project;
 
   protected final void doExecute() throws IOException, MojoExecutionException {
-    File tar;
-    if (src.isDirectory()) {
-      tar =
-          project.getBasedir().toPath().resolve(Path.of("target", src.getName() + ".tar")).toFile();
-      tarArchive(src, tar);
-    } else {
-      tar = src;
+    if (!incremental) {
+      importVolume(null);
+      return;
+    }
+
+    Path manifestPath = stateDir.toPath().resolve("volume-" + volume + ".manifest");
+    VolumeManifest prior = VolumeManifest.read(manifestPath);
+    VolumeManifest current = VolumeManifest.scan(src.toPath(), this::included, prior);
+    current.volumeCreated = volumeCreated();
+
+    Set<String> changed = null;
+    if (prior != null && current.volumeCreated.equals(prior.volumeCreated)) {
+      changed = current.changedSince(prior);
+      Set<String> removed = current.removedSince(prior);
+      if (!removed.isEmpty()) {
+        getLog().warn(volume + " retains files removed from source: " + removed);
+      }
+      if (changed.isEmpty()) {
+        getLog().info(volume + " is unchanged, skipping import");
+        current.write(manifestPath);
+        return;
+      }
+      if (!src.isDirectory()) {
+        // a tar file is imported whole
+        changed = null;
+      } else {
+        getLog().info(volume + " importing " + changed.size() + " changed files");
+      }
     }
 
-    executeCommand(
-        new CommandLine(this)
-            .addCmd("volume")
-            .addParameter("import")
-            .addParameter(volume)
-            .addParameter(tar.getAbsolutePath())
-            .getCommand());
+    importVolume(changed);
+    current.write(manifestPath);
   }
 
-  private void tarArchive(File src, File dst) throws IOException {
-    DefaultFileSet fileSet = DefaultFileSet.fileSet(src);
-    fileSet.setIncludes(new String[] {project.getArtifactId() + "/**/*.*"});
+  /** Whether a file, relative to the source directory, has an extension and is under artifactId */
+  boolean included(String name) {
+    return name.startsWith(project.getArtifactId() + '/')
+        && name.indexOf('.', name.lastIndexOf('/')) >= 0;
+  }
+
+  private String volumeCreated() throws IOException, MojoExecutionException {
+    return executeInfoCommand(
+            new CommandLine(this)
+                .addCmd("volume")
+                .addParameter("inspect")
+                .addParameter("--format")
+                .addParameter("{{.CreatedAt}}")
+                .addParameter(volume)
+                .getCommand())
+        .strip();
+  }
 
-    TarArchiver archiver = new TarArchiver();
-    archiver.addFileSet(fileSet);
-    archiver.setDestFile(dst);
-    archiver.createArchive();
+  private void importVolume(Set<String> files) throws IOException, MojoExecutionException {
+    CommandLine commandLine =
+        new CommandLine(this).addCmd("volume").addParameter("import").addParameter(volume);
+    if (src.isDirectory()) {
+      // stream the tar through stdin rather than staging a copy on disk
+      executeCommandWithInput(
+          commandLine.addParameter("-").getCommand(),
+          os ->
+              DirectoryTar.write(
+                  src.toPath(), files != null ? files::contains : this::included, os));
+    } else {
+      executeCommand(commandLine.addParameter(src.getAbsolutePath()).getCommand());
+    }
   }
 }
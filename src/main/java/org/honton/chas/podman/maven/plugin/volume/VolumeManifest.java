@@ -0,0 +1,164 @@
+package org.honton.chas.podman.maven.plugin.volume;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.honton.chas.podman.maven.plugin.Digests;
+
+/**
+ * Content manifest of a volume import source: the relative path, size, modification time, and
+ * SHA-256 hash of every file. The manifest is persisted along with the creation time of the volume
+ * it was imported into.
+ */
+class VolumeManifest {
+
+  /** One file of the source */
+  static class Entry {
+    final long size;
+    final long modified;
+    final String hash;
+
+    Entry(long size, long modified, String hash) {
+      this.size = size;
+      this.modified = modified;
+      this.hash = hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Entry)) {
+        return false;
+      }
+      Entry other = (Entry) o;
+      return size == other.size && hash.equals(other.hash);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(size, hash);
+    }
+  }
+
+  final Map<String, Entry> entries;
+  String volumeCreated;
+
+  private VolumeManifest(Map<String, Entry> entries, String volumeCreated) {
+    this.entries = entries;
+    this.volumeCreated = volumeCreated;
+  }
+
+  /**
+   * Compute the manifest of a directory tree, or of a single file. Files are hashed in parallel; a
+   * file whose size and modification time match the prior manifest reuses the prior hash.
+   *
+   * @param src The directory or file
+   * @param include Selects the files of a directory by relative name
+   * @param prior The prior manifest, may be null
+   */
+  static VolumeManifest scan(Path src, Predicate<String> include, VolumeManifest prior)
+      throws IOException {
+    Path root = Files.isDirectory(src) ? src : src.getParent();
+    List<Path> files;
+    try (Stream<Path> walk = Files.walk(src)) {
+      files =
+          walk.filter(Files::isRegularFile)
+              .filter(file -> file.equals(src) || include.test(name(root, file)))
+              .collect(Collectors.toList());
+    }
+    return new VolumeManifest(
+        Digests.mapFiles(root, files, (name, file) -> entry(name, file, prior)), null);
+  }
+
+  private static Entry entry(String name, Path file, VolumeManifest prior) throws IOException {
+    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+    long size = attributes.size();
+    long modified = attributes.lastModifiedTime().toMillis();
+    if (prior != null) {
+      Entry entry = prior.entries.get(name);
+      if (entry != null && entry.size == size && entry.modified == modified) {
+        return entry;
+      }
+    }
+    return new Entry(size, modified, Digests.hash(file));
+  }
+
+  private static String name(Path root, Path file) {
+    return root.relativize(file).toString().replace('\\', '/');
+  }
+
+  /**
+   * Paths which are new or have different content than in the prior manifest
+   *
+   * @param prior The prior manifest
+   */
+  Set<String> changedSince(VolumeManifest prior) {
+    return entries.entrySet().stream()
+        .filter(e -> !e.getValue().equals(prior.entries.get(e.getKey())))
+        .map(Map.Entry::getKey)
+        .collect(Collectors.toCollection(TreeSet::new));
+  }
+
+  /**
+   * Paths of the prior manifest which are no longer present
+   *
+   * @param prior The prior manifest
+   */
+  Set<String> removedSince(VolumeManifest prior) {
+    Set<String> removed = new TreeSet<>(prior.entries.keySet());
+    removed.removeAll(entries.keySet());
+    return removed;
+  }
+
+  /**
+   * Read a persisted manifest
+   *
+   * @param path The location of the manifest
+   * @return The manifest, or null if not present
+   */
+  static VolumeManifest read(Path path) throws IOException {
+    if (!Files.isRegularFile(path)) {
+      return null;
+    }
+    List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+    if (lines.isEmpty()) {
+      return null;
+    }
+    Map<String, Entry> entries = new TreeMap<>();
+    for (String line : lines.subList(1, lines.size())) {
+      String[] fields = line.split("\t", 4);
+      entries.put(
+          fields[3], new Entry(Long.parseLong(fields[1]), Long.parseLong(fields[2]), fields[0]));
+    }
+    return new VolumeManifest(entries, lines.get(0));
+  }
+
+  /**
+   * Persist the manifest
+   *
+   * @param path The location of the manifest
+   */
+  void write(Path path) throws IOException {
+    Files.createDirectories(path.getParent());
+    try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+      writer.write(volumeCreated);
+      writer.newLine();
+      for (Map.Entry<String, Entry> e : entries.entrySet()) {
+        Entry entry = e.getValue();
+        writer.write(entry.hash + '\t' + entry.size + '\t' + entry.modified + '\t' + e.getKey());
+        writer.newLine();
+      }
+    }
+  }
+}
@@ -0,0 +1,22 @@
+package org.honton.chas.podman.maven.plugin;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Create the executors for concurrent goal actions and for process stream pumps. Each task runs on
+ * its own virtual thread, so blocked actions and pumps do not hold platform threads.
+ */
+final class ExecutorFactory {
+
+  private ExecutorFactory() {}
+
+  static ExecutorService createTaskExecutor() {
+    return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("podman-", 1).factory());
+  }
+
+  static ExecutorService createStreamExecutor() {
+    return Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("podman-stream-", 1).factory());
+  }
+}
@@ -0,0 +1,67 @@
+package org.honton.chas.podman.maven.plugin;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DigestsTest {
+
+  private static final String EMPTY_SHA256 =
+      "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+
+  @TempDir Path tmp;
+
+  @Test
+  void toHex() {
+    Assertions.assertEquals("00ff7f80", Digests.toHex(new byte[] {0, -1, 127, -128}));
+  }
+
+  @Test
+  void hashMatchesDigestOfContent() throws IOException {
+    Path file = tmp.resolve("empty");
+    Files.writeString(file, "");
+    Assertions.assertEquals(EMPTY_SHA256, Digests.hash(file));
+    Assertions.assertEquals(
+        EMPTY_SHA256, Digests.toHex(Digests.sha256().digest("".getBytes(StandardCharsets.UTF_8))));
+  }
+
+  @Test
+  void combinerSeparatesValues() {
+    String ab = new Digests.Combiner().add("a").add("b").add("").digest();
+    Assertions.assertEquals(64, ab.length());
+    Assertions.assertEquals(ab, new Digests.Combiner().add(List.of("a", "b")).digest());
+    Assertions.assertNotEquals(ab, new Digests.Combiner().add("ab").add("").add("").digest());
+    Assertions.assertEquals(
+        new Digests.Combiner().add(Map.of("k", "v", "a", "b")).digest(),
+        new Digests.Combiner().add("a").add("b").add("k").add("v").add("").digest());
+    Assertions.assertEquals(
+        new Digests.Combiner().add((String) null).digest(),
+        new Digests.Combiner().add((Map<String, String>) null).digest());
+  }
+
+  @Test
+  void mapFilesByRelativeName() throws IOException {
+    Files.createDirectories(tmp.resolve("b"));
+    Path nested = Files.writeString(tmp.resolve("b/c.txt"), "");
+    Path top = Files.writeString(tmp.resolve("a.txt"), "");
+
+    Map<String, String> hashes =
+        Digests.mapFiles(
+            tmp, List.of(nested, top), (name, file) -> name + '=' + Digests.hash(file));
+    Assertions.assertEquals(List.of("a.txt", "b/c.txt"), List.copyOf(hashes.keySet()));
+    Assertions.assertEquals("b/c.txt=" + EMPTY_SHA256, hashes.get("b/c.txt"));
+  }
+
+  @Test
+  void mapFilesRethrowsIOException() {
+    Path absent = tmp.resolve("absent");
+    Assertions.assertThrows(
+        IOException.class, () -> Digests.mapFiles(tmp, List.of(absent), (n, f) -> Digests.hash(f)));
+  }
+}
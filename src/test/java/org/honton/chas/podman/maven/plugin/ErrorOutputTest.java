@@ -0,0 +1,42 @@
+package org.honton.chas.podman.maven.plugin;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ErrorOutputTest {
+
+  @Test
+  void retainsLinesUnderCapacity() {
+    ErrorOutput output = new ErrorOutput(1024);
+    output.appendLine("Error: network create:");
+    output.appendLine("network already exists");
+    Assertions.assertEquals("Error: network create:\nnetwork already exists\n", output.toString());
+    Assertions.assertTrue(output.contains("network already exists"));
+  }
+
+  @Test
+  void retainsTailOnceFull() {
+    ErrorOutput output = new ErrorOutput(16);
+    for (int i = 0; i < 1000; ++i) {
+      output.appendLine("progress " + i);
+    }
+    output.appendLine("failed");
+    Assertions.assertEquals(16, output.length());
+    Assertions.assertEquals("progress 999\nfailed\n".substring(4), output.toString());
+  }
+
+  @Test
+  void longLineKeepsItsEnd() {
+    ErrorOutput output = new ErrorOutput(8);
+    output.appendLine("ab");
+    output.appendLine("0123456789");
+    Assertions.assertEquals("3456789\n", output.toString());
+  }
+
+  @Test
+  void zeroCapacityRetainsNothing() {
+    ErrorOutput output = new ErrorOutput(0);
+    output.appendLine("network already exists");
+    Assertions.assertEquals("", output.toString());
+  }
+}
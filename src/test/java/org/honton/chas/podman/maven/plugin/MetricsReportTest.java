@@ -0,0 +1,136 @@
+package org.honton.chas.podman.maven.plugin;
+
+import com.fasterxml.jackson.jr.ob.JSON;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MetricsReportTest {
+
+  @TempDir Path tempDir;
+
+  @Test
+  void subcommand() {
+    Assertions.assertEquals("build", CommandTiming.subcommand(List.of("podman", "build", ".")));
+    Assertions.assertEquals(
+        "container run",
+        CommandTiming.subcommand(
+            List.of("podman", "--url", "tcp://host", "container", "run", "-d", "image")));
+    Assertions.assertEquals(
+        "manifest create",
+        CommandTiming.subcommand(List.of("/usr/bin/podman", "manifest", "create", "list")));
+    Assertions.assertEquals("docker load", CommandTiming.subcommand(List.of("docker", "load")));
+    Assertions.assertEquals("podman", CommandTiming.subcommand(List.of("podman", "--version")));
+  }
+
+  @Test
+  void request() {
+    Assertions.assertEquals("GET /_ping", CommandTiming.request("GET", "/v4.0.0/libpod/_ping"));
+    Assertions.assertEquals(
+        "POST /containers/create", CommandTiming.request("POST", "/containers/create"));
+    Assertions.assertEquals(
+        "POST /containers/{id}/start",
+        CommandTiming.request("POST", "/v4.0.0/libpod/containers/net.db/start"));
+    Assertions.assertEquals(
+        "DELETE /containers/{id}",
+        CommandTiming.request("DELETE", "/containers/8b1a?force=true&timeout=5"));
+    Assertions.assertEquals(
+        "GET /containers/json", CommandTiming.request("GET", "/containers/json?all=true"));
+  }
+
+  @Test
+  void requestCompletesWhenResponseClosed() throws IOException {
+    SessionMetrics.GoalTiming goal = new SessionMetrics.GoalTiming("container-run");
+    CommandTiming timing =
+        new CommandTiming(goal, "db", "GET", "/v4.0.0/libpod/containers/db/json", false);
+    try (InputStream body =
+        timing.response(404, new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8)))) {
+      body.readAllBytes();
+      Assertions.assertFalse(timing.completion().isDone());
+    }
+    Assertions.assertTrue(timing.completion().isDone());
+    Assertions.assertEquals(404, timing.getExitCode());
+    Assertions.assertEquals(2, timing.getStdoutBytes());
+    Assertions.assertEquals("GET /containers/{id}/json", timing.subcommand);
+
+    CommandTiming failed = new CommandTiming(goal, null, "GET", "/_ping", false);
+    failed.failed();
+    Assertions.assertTrue(failed.completion().isDone());
+    Assertions.assertEquals(1, failed.getExitCode());
+  }
+
+  @Test
+  void percentile() {
+    long[] sorted = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+    Assertions.assertEquals(5, MetricsReport.percentile(sorted, 50));
+    Assertions.assertEquals(9, MetricsReport.percentile(sorted, 90));
+    Assertions.assertEquals(10, MetricsReport.percentile(sorted, 99));
+    Assertions.assertEquals(7, MetricsReport.percentile(new long[] {7}, 50));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void goalWritesReports() throws IOException, MojoExecutionException, MojoFailureException {
+    List<String> infos = new CopyOnWriteArrayList<>();
+    PodmanGoal goal =
+        new PodmanGoal() {
+          @Override
+          protected void doExecute() throws MojoExecutionException, IOException {
+            setCommandSubject("db");
+            try {
+              executeCommand(List.of("printf", "abc"));
+            } finally {
+              setCommandSubject(null);
+            }
+            executeCommand(List.of("printf", "defgh"));
+          }
+        };
+    goal.metricsFile = tempDir.resolve("podman/metrics.json").toFile();
+    goal.spanFile = tempDir.resolve("podman/spans.json").toFile();
+    goal.setLog(
+        new SystemStreamLog() {
+          @Override
+          public void info(CharSequence content) {
+            infos.add(content.toString());
+          }
+        });
+    goal.execute();
+
+    Assertions.assertTrue(infos.stream().anyMatch(l -> l.startsWith("podman command")));
+    Assertions.assertTrue(infos.stream().anyMatch(l -> l.matches("printf abc\\s+1\\s.*")));
+
+    List<Map<String, Object>> commands =
+        (List<Map<String, Object>>)
+            JSON.std.mapFrom(Files.readString(goal.metricsFile.toPath())).get("commands");
+    Assertions.assertEquals(2, commands.size());
+    Map<String, Object> db =
+        commands.stream().filter(c -> "db".equals(c.get("container"))).findFirst().orElseThrow();
+    Assertions.assertEquals("printf abc", db.get("subcommand"));
+    Assertions.assertEquals(0, db.get("exitCode"));
+    Assertions.assertEquals(3, ((Number) db.get("stdoutBytes")).intValue());
+
+    Map<String, Object> resourceSpans =
+        ((List<Map<String, Object>>)
+                JSON.std.mapFrom(Files.readString(goal.spanFile.toPath())).get("resourceSpans"))
+            .get(0);
+    Map<String, Object> scopeSpans =
+        ((List<Map<String, Object>>) resourceSpans.get("scopeSpans")).get(0);
+    List<Map<String, Object>> spans = (List<Map<String, Object>>) scopeSpans.get("spans");
+    Assertions.assertEquals(3, spans.size());
+    Object goalSpanId = spans.get(0).get("spanId");
+    Assertions.assertEquals(goalSpanId, spans.get(1).get("parentSpanId"));
+    Assertions.assertEquals(spans.get(0).get("traceId"), spans.get(2).get("traceId"));
+  }
+}
@@ -0,0 +1,131 @@
+package org.honton.chas.podman.maven.plugin;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class PodmanGoalTest {
+
+  private final List<String> infos = new CopyOnWriteArrayList<>();
+
+  private final PodmanGoal goal =
+      new PodmanGoal() {
+        @Override
+        protected void doExecute() {}
+      };
+
+  PodmanGoalTest() {
+    goal.setLog(
+        new SystemStreamLog() {
+          @Override
+          public void info(CharSequence content) {
+            infos.add(content.toString());
+          }
+        });
+  }
+
+  @Test
+  void pipelineConnectsOutputToInput()
+      throws IOException, MojoExecutionException, InterruptedException {
+    goal.executePipeline(List.of(List.of("printf", "a\\nb\\nc\\n"), List.of("wc", "-l")));
+    Assertions.assertEquals("printf a\\nb\\nc\\n | wc -l", infos.get(0));
+    // output is pumped asynchronously
+    for (int i = 0; i < 500 && infos.size() < 2; ++i) {
+      Thread.sleep(10);
+    }
+    Assertions.assertEquals("3", infos.get(infos.size() - 1).strip());
+  }
+
+  @Test
+  void pipelineFailsWhenAnyCommandFails() {
+    Assertions.assertThrows(
+        MojoExecutionException.class,
+        () -> goal.executePipeline(List.of(List.of("false"), List.of("cat"))));
+  }
+
+  @Test
+  void messageStartMatchesSeverityPattern() {
+    Pattern warning = Pattern.compile("\\[?(warning)]?:? ?(.+)", Pattern.CASE_INSENSITIVE);
+    for (String line :
+        List.of(
+            "WARNING: image platform does not match",
+            "[warning] not stopped in time",
+            "Warning:",
+            "warning: ",
+            "warning]:",
+            "warning",
+            "warnings issued",
+            "[WARNING]:  two spaces",
+            "Copying blob sha256:2d473b07",
+            "",
+            "[")) {
+      Matcher matcher = warning.matcher(line);
+      int start = PodmanGoal.messageStart(line, "warning");
+      Assertions.assertEquals(matcher.matches() ? matcher.start(2) : -1, start, line);
+    }
+  }
+
+  @Test
+  void errorLinesAreClassifiedAndRetained() {
+    List<String> warnings = new CopyOnWriteArrayList<>();
+    List<String> errors = new CopyOnWriteArrayList<>();
+    goal.setLog(
+        new SystemStreamLog() {
+          @Override
+          public void info(CharSequence content) {
+            infos.add(content.toString());
+          }
+
+          @Override
+          public void warn(CharSequence content) {
+            warnings.add(content.toString());
+          }
+
+          @Override
+          public void error(CharSequence content) {
+            errors.add(content.toString());
+          }
+        });
+    ErrorOutput errorOutput = new ErrorOutput(goal.errorTail);
+    Consumer<String> stderr = PodmanGoal.retaining(errorOutput, goal::errorLine);
+    stderr.accept("WARNING: image platform does not match");
+    stderr.accept("Error: network already exists");
+    stderr.accept("Writing manifest to image destination");
+
+    Assertions.assertEquals(List.of("image platform does not match"), warnings);
+    Assertions.assertEquals(List.of("network already exists"), errors);
+    Assertions.assertEquals(List.of("Writing manifest to image destination"), infos);
+    Assertions.assertTrue(errorOutput.contains("network already exists"));
+  }
+
+  @Test
+  void concurrentCommandsCheckTheirOwnErrorOutput() throws MojoExecutionException, IOException {
+    Map<String, String> checked = new ConcurrentHashMap<>();
+    goal.forEachConcurrently(
+        List.of("first", "second", "third", "fourth"),
+        name -> {
+          try {
+            goal.executeCommand(
+                List.of("sh", "-c", "echo " + name + " >&2; sleep 0.1; echo " + name + " >&2"),
+                null,
+                line -> {},
+                line -> {},
+                (exitCode, errorOutput) -> checked.put(name, errorOutput));
+          } catch (MojoExecutionException | IOException e) {
+            throw new IllegalStateException(e);
+          }
+        });
+    checked.forEach(
+        (name, errorOutput) -> Assertions.assertEquals(name + '\n' + name + '\n', errorOutput));
+    Assertions.assertEquals(4, checked.size());
+  }
+}
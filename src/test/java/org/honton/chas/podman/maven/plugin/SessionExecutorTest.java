@@ -0,0 +1,132 @@
+package org.honton.chas.podman.maven.plugin;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.maven.execution.AbstractExecutionListener;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class SessionExecutorTest {
+
+  @Test
+  void sharedWithinSessionAndShutDownAtEnd() throws Exception {
+    List<String> events = new ArrayList<>();
+    MavenExecutionRequest request = new DefaultMavenExecutionRequest();
+    request.setExecutionListener(
+        new AbstractExecutionListener() {
+          @Override
+          public void projectStarted(ExecutionEvent event) {
+            events.add("projectStarted");
+          }
+
+          @Override
+          public void sessionEnded(ExecutionEvent event) {
+            events.add("sessionEnded");
+          }
+        });
+    MavenSession session = new MavenSession(null, null, request, new DefaultMavenExecutionResult());
+
+    ExecutorService executor = SessionExecutor.get(session);
+    Assertions.assertSame(executor, SessionExecutor.get(session));
+    Assertions.assertNotSame(
+        executor,
+        SessionExecutor.get(
+            new MavenSession(
+                null,
+                null,
+                new DefaultMavenExecutionRequest(),
+                new DefaultMavenExecutionResult())));
+
+    AtomicReference<Thread> thread = new AtomicReference<>();
+    executor.submit(() -> thread.set(Thread.currentThread())).get();
+    Assertions.assertTrue(thread.get().isDaemon());
+    Assertions.assertTrue(thread.get().getName().startsWith("podman-"));
+
+    request.getExecutionListener().projectStarted(null);
+    request.getExecutionListener().sessionEnded(null);
+    Assertions.assertTrue(executor.isShutdown());
+    Assertions.assertEquals(List.of("projectStarted", "sessionEnded"), events);
+  }
+
+  @Test
+  void backgroundProcessDestroyedAtEnd() throws Exception {
+    MavenExecutionRequest request = new DefaultMavenExecutionRequest();
+    MavenSession session = new MavenSession(null, null, request, new DefaultMavenExecutionResult());
+    Process follower = new ProcessBuilder("sleep", "60").start();
+    Process exited = new ProcessBuilder("true").start();
+    SessionExecutor.destroyAtEnd(session, follower);
+    SessionExecutor.destroyAtEnd(session, exited);
+    exited.waitFor();
+
+    request.getExecutionListener().sessionEnded(null);
+    Assertions.assertTrue(follower.waitFor(10, TimeUnit.SECONDS));
+    Assertions.assertTrue(SessionExecutor.get(session).isShutdown());
+    Assertions.assertTrue(SessionExecutor.streams(session).isShutdown());
+  }
+
+  @Test
+  void taskPoolIsCapped() throws Exception {
+    ExecutorService executor = ExecutorFactory.createTaskExecutor();
+    int tasks = ExecutorFactory.MAX_POOLED + 4;
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger peak = new AtomicInteger();
+    CountDownLatch started = new CountDownLatch(ExecutorFactory.MAX_POOLED);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch finished = new CountDownLatch(tasks);
+    for (int i = 0; i < tasks; ++i) {
+      executor.execute(
+          () -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            started.countDown();
+            try {
+              release.await();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            finished.countDown();
+          });
+    }
+    // tasks beyond the cap wait in the queue rather than starting threads
+    Assertions.assertTrue(started.await(10, TimeUnit.SECONDS));
+    Assertions.assertEquals(ExecutorFactory.MAX_POOLED, peak.get());
+    release.countDown();
+    Assertions.assertTrue(finished.await(10, TimeUnit.SECONDS));
+    Assertions.assertEquals(ExecutorFactory.MAX_POOLED, peak.get());
+    executor.shutdown();
+  }
+
+  @Test
+  void streamTasksRunAtOnce() throws Exception {
+    ExecutorService executor = ExecutorFactory.createStreamExecutor();
+    int tasks = ExecutorFactory.MAX_POOLED + 4;
+    CountDownLatch started = new CountDownLatch(tasks);
+    CountDownLatch release = new CountDownLatch(1);
+    for (int i = 0; i < tasks; ++i) {
+      executor.execute(
+          () -> {
+            started.countDown();
+            try {
+              release.await();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+          });
+    }
+    // every blocking pump runs at once, none waits in a queue
+    Assertions.assertTrue(started.await(10, TimeUnit.SECONDS));
+    release.countDown();
+    executor.shutdown();
+    Assertions.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+  }
+}
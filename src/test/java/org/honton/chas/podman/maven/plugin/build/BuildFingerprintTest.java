@@ -0,0 +1,47 @@
+package org.honton.chas.podman.maven.plugin.build;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BuildFingerprintTest {
+
+  @TempDir Path contextDir;
+
+  private String fingerprint(Map<String, String> args, List<String> platforms) throws IOException {
+    return BuildFingerprint.of("Containerfile", args, platforms, contextDir);
+  }
+
+  @Test
+  void stableForUnchangedInputs() throws IOException {
+    Files.writeString(contextDir.resolve("Containerfile"), "FROM scratch\n");
+    Files.createDirectories(contextDir.resolve("lib"));
+    Files.writeString(contextDir.resolve("lib/a.jar"), "a");
+
+    String first = fingerprint(Map.of("A", "1", "B", "2"), List.of("linux/amd64"));
+    Assertions.assertEquals(64, first.length());
+    Assertions.assertEquals(first, fingerprint(Map.of("B", "2", "A", "1"), List.of("linux/amd64")));
+  }
+
+  @Test
+  void changesWithInputs() throws IOException {
+    Files.writeString(contextDir.resolve("Containerfile"), "FROM scratch\n");
+    Files.writeString(contextDir.resolve("a.jar"), "a");
+    String original = fingerprint(null, null);
+
+    Assertions.assertNotEquals(original, fingerprint(Map.of("A", "1"), null));
+    Assertions.assertNotEquals(original, fingerprint(null, List.of("linux/arm64")));
+
+    Files.writeString(contextDir.resolve("a.jar"), "b");
+    String modified = fingerprint(null, null);
+    Assertions.assertNotEquals(original, modified);
+
+    Files.move(contextDir.resolve("a.jar"), contextDir.resolve("b.jar"));
+    Assertions.assertNotEquals(modified, fingerprint(null, null));
+  }
+}
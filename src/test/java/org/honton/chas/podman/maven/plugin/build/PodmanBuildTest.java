@@ -0,0 +1,17 @@
+package org.honton.chas.podman.maven.plugin.build;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class PodmanBuildTest {
+
+  @Test
+  void platformTag() {
+    Assertions.assertEquals(
+        "registry:5000/repo/app:1.0-linux-arm64-v8",
+        PodmanBuild.platformTag("registry:5000/repo/app:1.0", "linux/arm64/v8"));
+    Assertions.assertEquals(
+        "registry:5000/repo/app:linux-amd64",
+        PodmanBuild.platformTag("registry:5000/repo/app", "linux/amd64"));
+  }
+}
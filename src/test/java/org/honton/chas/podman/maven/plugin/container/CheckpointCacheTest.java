@@ -0,0 +1,70 @@
+package org.honton.chas.podman.maven.plugin.container;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CheckpointCacheTest {
+
+  @TempDir Path directory;
+
+  private final List<String> evicted = new ArrayList<>();
+
+  private void store(CheckpointCache cache, String key, int size, long lastUsed)
+      throws IOException {
+    Path staged = cache.stage(key);
+    Files.write(staged, new byte[size]);
+    Assertions.assertEquals(size, cache.store(key, staged));
+    Files.setLastModifiedTime(directory.resolve(key + ".tar"), FileTime.fromMillis(lastUsed));
+  }
+
+  @Test
+  void lookupMissesUnknownKey() throws IOException {
+    CheckpointCache cache = new CheckpointCache(directory.resolve("cache"), 100, evicted::add);
+    Assertions.assertNull(cache.lookup("abc"));
+  }
+
+  @Test
+  void lookupMarksArchiveUsed() throws IOException {
+    CheckpointCache cache = new CheckpointCache(directory, 100, evicted::add);
+    store(cache, "abc", 10, 1000);
+
+    Path archive = cache.lookup("abc");
+    Assertions.assertEquals(directory.resolve("abc.tar"), archive);
+    Assertions.assertTrue(Files.getLastModifiedTime(archive).toMillis() > 1000);
+  }
+
+  @Test
+  void evictsLeastRecentlyUsed() throws IOException {
+    CheckpointCache cache = new CheckpointCache(directory, 100, evicted::add);
+    store(cache, "a", 40, 1000);
+    store(cache, "b", 40, 2000);
+    cache.lookup("a");
+    store(cache, "c", 40, System.currentTimeMillis());
+
+    Assertions.assertEquals(List.of("Evicting checkpoint b.tar"), evicted);
+    Assertions.assertNotNull(cache.lookup("a"));
+    Assertions.assertNull(cache.lookup("b"));
+    Assertions.assertNotNull(cache.lookup("c"));
+  }
+
+  @Test
+  void keepsStoredArchiveOverLimit() throws IOException {
+    CheckpointCache cache = new CheckpointCache(directory, 100, evicted::add);
+    store(cache, "a", 40, 1000);
+    store(cache, "big", 200, 2000);
+
+    Assertions.assertEquals(List.of("Evicting checkpoint a.tar"), evicted);
+    Assertions.assertNotNull(cache.lookup("big"));
+    try (Stream<Path> files = Files.list(directory)) {
+      Assertions.assertEquals(1, files.count());
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package org.honton.chas.podman.maven.plugin.container;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.honton.chas.podman.maven.plugin.config.ContainerConfig;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ContainerConfigHelperTest {
+
+  private static ContainerConfig config(String requires) {
+    ContainerConfig config = new ContainerConfig();
+    config.image = "image";
+    config.requires = requires;
+    return config;
+  }
+
+  private static List<List<String>> aliases(List<List<ContainerConfig>> levels) {
+    return levels.stream()
+        .map(l -> l.stream().map(c -> c.alias).sorted().collect(Collectors.toList()))
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  void independentContainersShareLevel() throws MojoExecutionException {
+    Map<String, ContainerConfig> containers = new LinkedHashMap<>();
+    containers.put("db", config(null));
+    containers.put("broker", config(null));
+    containers.put("app", config("db, broker"));
+    containers.put("ui", config("app"));
+
+    List<List<ContainerConfig>> levels =
+        ContainerConfigHelper.order("net", containers, new SystemStreamLog());
+
+    Assertions.assertEquals(
+        List.of(List.of("broker", "db"), List.of("app"), List.of("ui")), aliases(levels));
+    Assertions.assertEquals("net.db", containers.get("db").name);
+  }
+
+  @Test
+  void requirementWithSeveralDependents() throws MojoExecutionException {
+    Map<String, ContainerConfig> containers = new LinkedHashMap<>();
+    containers.put("db", config(null));
+    containers.put("migrate", config("db"));
+    containers.put("app", config("db"));
+    containers.put("report", config("db, app"));
+
+    List<List<ContainerConfig>> levels =
+        ContainerConfigHelper.order("net", containers, new SystemStreamLog());
+
+    Assertions.assertEquals(
+        List.of(List.of("db"), List.of("app", "migrate"), List.of("report")), aliases(levels));
+  }
+
+  @Test
+  void podPortPublishedOnce() throws MojoExecutionException {
+    Map<String, ContainerConfig> containers = new LinkedHashMap<>();
+    containers.put("db", config(null));
+    containers.put("app", config("db"));
+    containers.put("admin", config("db"));
+    containers.get("db").ports = Map.of("db.port", "5432");
+    containers.get("app").ports = Map.of("app.port", "8080");
+    List<List<ContainerConfig>> levels =
+        ContainerConfigHelper.order("net", containers, new SystemStreamLog());
+    ContainerConfigHelper.checkPodPorts(levels);
+
+    containers.get("admin").ports = Map.of("admin.port", "8080/tcp");
+    MojoExecutionException duplicate =
+        Assertions.assertThrows(
+            MojoExecutionException.class, () -> ContainerConfigHelper.checkPodPorts(levels));
+    Assertions.assertEquals(
+        "Port 8080/tcp is published by both app and admin", duplicate.getMessage());
+  }
+}
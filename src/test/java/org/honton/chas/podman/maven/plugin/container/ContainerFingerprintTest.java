@@ -0,0 +1,101 @@
+package org.honton.chas.podman.maven.plugin.container;
+
+import com.fasterxml.jackson.jr.ob.JSON;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.honton.chas.podman.maven.plugin.config.ContainerConfig;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ContainerFingerprintTest {
+
+  private static final String IMAGE_ID = "sha256:5f70bf18a086";
+
+  private final Map<String, String> properties = new HashMap<>();
+
+  private static ContainerConfig postgres() {
+    ContainerConfig config = new ContainerConfig();
+    config.alias = "db";
+    config.name = "net.db";
+    config.image = "postgres:16";
+    config.env = new HashMap<>(Map.of("POSTGRES_PASSWORD", "secret", "POSTGRES_DB", "test"));
+    config.ports = Map.of("db.port", "5432");
+    return config;
+  }
+
+  private String fingerprint(ContainerConfig config, String imageId) throws IOException {
+    return ContainerFingerprint.of(config, "net", imageId, null, properties::get);
+  }
+
+  @Test
+  void unchangedConfigurationMatches() throws IOException {
+    String first = fingerprint(postgres(), IMAGE_ID);
+    Assertions.assertEquals(64, first.length());
+    Assertions.assertEquals(first, fingerprint(postgres(), IMAGE_ID));
+
+    // an assigned host port does not change the configuration
+    properties.put("db.port", "");
+    Assertions.assertEquals(first, fingerprint(postgres(), IMAGE_ID));
+  }
+
+  @Test
+  void changedConfigurationDiffers() throws IOException {
+    String first = fingerprint(postgres(), IMAGE_ID);
+    Assertions.assertNotEquals(first, fingerprint(postgres(), "sha256:0e5bd2c1a6b1"));
+
+    ContainerConfig env = postgres();
+    env.env.put("POSTGRES_DB", "other");
+    Assertions.assertNotEquals(first, fingerprint(env, IMAGE_ID));
+
+    ContainerConfig args = postgres();
+    args.args = List.of("-c", "fsync=off");
+    Assertions.assertNotEquals(first, fingerprint(args, IMAGE_ID));
+
+    properties.put("db.port", "15432");
+    Assertions.assertNotEquals(first, fingerprint(postgres(), IMAGE_ID));
+  }
+
+  @Test
+  void imageFingerprintLabelIsNotContainerFingerprint() throws IOException {
+    // a container inherits the labels of a built image
+    String json =
+        "[{\"Id\":\"8b1a\",\"Labels\":{\"org.honton.chas.podman.fingerprint\":\"abc\"},"
+            + "\"Names\":[\"net.db\"],\"Networks\":[\"net\"],\"State\":\"running\"}]";
+    PodmanContainerRun.ContainerSummary summary =
+        JSON.std.listOfFrom(PodmanContainerRun.ContainerSummary.class, json).get(0);
+    Assertions.assertFalse(PodmanContainerRun.isReusable(summary, "net", "abc"));
+  }
+
+  @Test
+  void reusableWhenRunningOnNetworkWithFingerprint() throws IOException {
+    // output of podman container ls --format json, abbreviated
+    String json =
+        "[{\"AutoRemove\":false,\"Id\":\"8b1a\",\"Image\":\"docker.io/library/postgres:16\","
+            + "\"Labels\":{\""
+            + ContainerFingerprint.LABEL
+            + "\":\"abc\"},\"Names\":[\"net.db\"],\"Networks\":[\"net\"],"
+            + "\"Ports\":[{\"host_ip\":\"\",\"container_port\":5432,\"host_port\":40123}],"
+            + "\"State\":\"running\"}]";
+    PodmanContainerRun.ContainerSummary summary =
+        JSON.std.listOfFrom(PodmanContainerRun.ContainerSummary.class, json).get(0);
+    Assertions.assertEquals("8b1a", summary.Id);
+    Assertions.assertTrue(PodmanContainerRun.isReusable(summary, "net", "abc"));
+    Assertions.assertFalse(PodmanContainerRun.isReusable(summary, "net", "def"));
+    Assertions.assertFalse(PodmanContainerRun.isReusable(summary, "other", "abc"));
+
+    summary.State = "exited";
+    Assertions.assertFalse(PodmanContainerRun.isReusable(summary, "net", "abc"));
+    summary.State = "running";
+    summary.Labels = null;
+    Assertions.assertFalse(PodmanContainerRun.isReusable(summary, "net", "abc"));
+  }
+
+  @Test
+  void namePatternMatchesOnlyTheName() {
+    Assertions.assertEquals("^net\\.db$", PodmanContainerRun.namePattern("net.db"));
+    Assertions.assertTrue("net.db".matches(PodmanContainerRun.namePattern("net.db")));
+    Assertions.assertFalse("net-db".matches(PodmanContainerRun.namePattern("net.db")));
+  }
+}
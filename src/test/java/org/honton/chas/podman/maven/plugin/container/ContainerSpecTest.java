@@ -0,0 +1,23 @@
+package org.honton.chas.podman.maven.plugin.container;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ContainerSpecTest {
+
+  @Test
+  void memoryUnits() throws MojoExecutionException {
+    Assertions.assertEquals(512, ContainerSpec.toBytes("512"));
+    Assertions.assertEquals(512, ContainerSpec.toBytes("512b"));
+    Assertions.assertEquals(2048, ContainerSpec.toBytes("2k"));
+    Assertions.assertEquals(3L << 20, ContainerSpec.toBytes(" 3M "));
+    Assertions.assertEquals(4L << 30, ContainerSpec.toBytes("4g"));
+  }
+
+  @Test
+  void invalidMemory() {
+    Assertions.assertThrows(MojoExecutionException.class, () -> ContainerSpec.toBytes("1t"));
+    Assertions.assertThrows(MojoExecutionException.class, () -> ContainerSpec.toBytes("m"));
+  }
+}
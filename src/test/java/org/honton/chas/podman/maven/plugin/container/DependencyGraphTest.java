@@ -0,0 +1,71 @@
+package org.honton.chas.podman.maven.plugin.container;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class DependencyGraphTest {
+
+  private static DependencyGraph<String> graph(String... nodeAndRequires) {
+    DependencyGraph<String> graph = new DependencyGraph<>();
+    for (String spec : nodeAndRequires) {
+      String[] parts = spec.split(":");
+      List<String> requires = parts.length > 1 ? List.of(parts[1].split(",")) : List.of();
+      graph.add(parts[0], parts[0], requires);
+    }
+    return graph;
+  }
+
+  @Test
+  void levelsKeepInsertionOrder() {
+    DependencyGraph<String> graph = graph("ui:app", "db", "app:db,broker", "broker", "cache");
+    Assertions.assertEquals(
+        List.of(List.of("db", "broker", "cache"), List.of("app"), List.of("ui")), graph.levels());
+  }
+
+  @Test
+  void levelIsLongestRequirementChain() {
+    // c requires a directly and through b
+    DependencyGraph<String> graph = graph("a", "b:a", "c:a,b");
+    Assertions.assertEquals(List.of(List.of("a"), List.of("b"), List.of("c")), graph.levels());
+  }
+
+  @Test
+  void criticalPathFollowsWeights() {
+    DependencyGraph<String> graph = graph("db", "broker", "app:db,broker", "ui:app", "batch:db");
+    Map<String, Long> seconds = Map.of("db", 5L, "broker", 20L, "app", 10L, "ui", 1L, "batch", 20L);
+    Assertions.assertEquals(List.of("broker", "app", "ui"), graph.criticalPath(seconds::get));
+    Assertions.assertEquals(List.of("db", "app", "ui"), graph.criticalPath(alias -> 1));
+  }
+
+  @Test
+  void cycleNamesLoop() {
+    // x and z only require the loop; they are not part of it
+    DependencyGraph<String> graph = graph("x:a", "a:b", "b:c", "c:a", "z:x", "ok");
+    IllegalArgumentException e =
+        Assertions.assertThrows(IllegalArgumentException.class, graph::levels);
+    Assertions.assertEquals("Requirements form a cycle: a -> b -> c -> a", e.getMessage());
+  }
+
+  @Test
+  void selfRequirement() {
+    IllegalArgumentException e =
+        Assertions.assertThrows(IllegalArgumentException.class, graph("a:a")::levels);
+    Assertions.assertEquals("Requirements form a cycle: a -> a", e.getMessage());
+  }
+
+  @Test
+  void missingRequirement() {
+    IllegalArgumentException e =
+        Assertions.assertThrows(IllegalArgumentException.class, graph("a:b")::levels);
+    Assertions.assertEquals("Missing definition for require b on a", e.getMessage());
+  }
+
+  @Test
+  void empty() {
+    DependencyGraph<String> graph = new DependencyGraph<>();
+    Assertions.assertEquals(List.of(), graph.levels());
+    Assertions.assertEquals(List.of(), graph.criticalPath(alias -> 1));
+  }
+}
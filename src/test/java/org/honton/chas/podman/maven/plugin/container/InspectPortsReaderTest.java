@@ -0,0 +1,90 @@
+package org.honton.chas.podman.maven.plugin.container;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class InspectPortsReaderTest {
+
+  private static final String INSPECT =
+      "[\n"
+          + "  {\n"
+          + "    \"Id\": \"aaa\",\n"
+          + "    \"Args\": [\"-c\", \"exec\"],\n"
+          + "    \"State\": {\"Status\": \"running\", \"Health\": {\"Log\": null}},\n"
+          + "    \"HostConfig\": {\n"
+          + "      \"Binds\": [],\n"
+          + "      \"PortBindings\": {\n"
+          + "        \"53/udp\": [{\"HostIp\": \"\", \"HostPort\": \"40053\"}],\n"
+          + "        \"80/tcp\": [\n"
+          + "          {\"HostIp\": \"0.0.0.0\", \"HostPort\": \"40080\"},\n"
+          + "          {\"HostIp\": \"::\", \"HostPort\": \"40081\"}\n"
+          + "        ],\n"
+          + "        \"8443/tcp\": null\n"
+          + "      },\n"
+          + "      \"RestartPolicy\": {\"Name\": \"\", \"MaximumRetryCount\": 0}\n"
+          + "    },\n"
+          + "    \"NetworkSettings\": {\"Ports\": {\"80/tcp\": [{\"HostPort\": \"1\"}]}}\n"
+          + "  },\n"
+          + "  {\n"
+          + "    \"HostConfig\": {\"PortBindings\": {\"132/sctp\": [{\"HostPort\": \"40132\"}]}},\n"
+          + "    \"Id\": \"bbb\"\n"
+          + "  },\n"
+          + "  {\"Id\": \"ccc\", \"HostConfig\": {}}\n"
+          + "]\n";
+
+  @Test
+  void readsBindingsOfEachContainer() throws IOException {
+    Map<String, Map<String, List<PodmanContainerRun.PortBinding>>> containers = read(INSPECT);
+    Assertions.assertEquals(List.of("aaa", "bbb", "ccc"), List.copyOf(containers.keySet()));
+
+    Map<String, List<PodmanContainerRun.PortBinding>> aaa = containers.get("aaa");
+    Assertions.assertEquals("40053", aaa.get("53/udp").get(0).HostPort);
+    Assertions.assertEquals(List.of(), aaa.get("8443/tcp"));
+
+    List<PodmanContainerRun.PortBinding> http = aaa.get("80/tcp");
+    Assertions.assertEquals(2, http.size());
+    Assertions.assertEquals("::", http.get(1).HostIp);
+    Assertions.assertEquals("40081", http.get(1).HostPort);
+
+    Assertions.assertEquals("40132", containers.get("bbb").get("132/sctp").get(0).HostPort);
+    Assertions.assertEquals(Map.of(), containers.get("ccc"));
+  }
+
+  @Test
+  void emptyOutput() throws IOException {
+    Assertions.assertEquals(Map.of(), read(""));
+    Assertions.assertEquals(Map.of(), read("[]"));
+  }
+
+  @Test
+  void rejectsNonArray() {
+    Assertions.assertThrows(IOException.class, () -> read("{\"Id\": \"aaa\"}"));
+  }
+
+  @Test
+  void preferredBinding() {
+    PodmanContainerRun.PortBinding ipv6 = binding("::1", "1");
+    PodmanContainerRun.PortBinding loopback = binding("127.0.0.1", "2");
+    PodmanContainerRun.PortBinding any = binding("0.0.0.0", "3");
+    Assertions.assertSame(any, PodmanContainerRun.preferredBinding(List.of(ipv6, loopback, any)));
+    Assertions.assertSame(loopback, PodmanContainerRun.preferredBinding(List.of(ipv6, loopback)));
+    Assertions.assertSame(ipv6, PodmanContainerRun.preferredBinding(List.of(ipv6)));
+  }
+
+  private static PodmanContainerRun.PortBinding binding(String hostIp, String hostPort) {
+    PodmanContainerRun.PortBinding binding = new PodmanContainerRun.PortBinding();
+    binding.HostIp = hostIp;
+    binding.HostPort = hostPort;
+    return binding;
+  }
+
+  private static Map<String, Map<String, List<PodmanContainerRun.PortBinding>>> read(String json)
+      throws IOException {
+    return InspectPortsReader.read(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+  }
+}
@@ -0,0 +1,119 @@
+package org.honton.chas.podman.maven.plugin.container;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import org.honton.chas.podman.maven.plugin.config.WaitConfig;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class LogMatcherTest {
+
+  @Test
+  void automatonFindsOverlappingLiterals() {
+    AhoCorasick automaton = new AhoCorasick(List.of("he", "she", "his", "hers"));
+    Set<Integer> found = new TreeSet<>();
+    automaton.search("ushers", found::add);
+    Assertions.assertEquals(Set.of(0, 1, 3), found);
+  }
+
+  @Test
+  void waitsForAllSuccessConditions() throws InterruptedException {
+    WaitConfig waitConfig = new WaitConfig();
+    waitConfig.log = "database ready";
+    waitConfig.logs = List.of("cache ready");
+    waitConfig.logPatterns = List.of("Started .* in [0-9.]+ seconds");
+    LogMatcher matcher = LogMatcher.of(waitConfig);
+
+    matcher.accept("cache ready");
+    matcher.accept("database ready");
+    Assertions.assertFalse(matcher.await(0));
+    Assertions.assertEquals(List.of("Started .* in [0-9.]+ seconds"), matcher.getUnseen());
+
+    matcher.accept("Started Application in 1.25 seconds (JVM running for 2.1)");
+    Assertions.assertTrue(matcher.await(0));
+    Assertions.assertNull(matcher.getFailure());
+  }
+
+  @Test
+  void failureAbortsWait() throws InterruptedException {
+    WaitConfig waitConfig = new WaitConfig();
+    waitConfig.log = "ready";
+    waitConfig.failures = List.of("OutOfMemoryError");
+    waitConfig.failurePatterns = List.of("FATAL|PANIC");
+    LogMatcher matcher = LogMatcher.of(waitConfig);
+
+    matcher.accept("LOG: PANIC: could not write to file");
+    Assertions.assertTrue(matcher.await(0));
+    Assertions.assertEquals("FATAL|PANIC", matcher.getFailure());
+    Assertions.assertEquals(List.of("ready"), matcher.getUnseen());
+  }
+
+  @Test
+  void failureOnlyWatchesWholeLog() throws InterruptedException {
+    WaitConfig waitConfig = new WaitConfig();
+    waitConfig.failures = List.of("Exception");
+    LogMatcher matcher = LogMatcher.of(waitConfig);
+    Assertions.assertFalse(matcher.isEmpty());
+    Assertions.assertTrue(matcher.await(0));
+
+    matcher.accept("all good");
+    Assertions.assertNull(matcher.getFailure());
+    matcher.accept("java.lang.IllegalStateException: boom");
+    Assertions.assertEquals("Exception", matcher.getFailure());
+  }
+
+  @Test
+  void patternsMatchingAtSamePlaceAreAllSeen() throws InterruptedException {
+    LogMatcher matcher =
+        new LogMatcher(
+            List.of(), List.of("ready", "rea[a-z]+", "^.*accepting", "ing$"), List.of(), List.of());
+
+    matcher.accept("ready and accepting");
+    Assertions.assertTrue(matcher.await(0));
+    Assertions.assertEquals(List.of(), matcher.getUnseen());
+  }
+
+  @Test
+  void anchoredPatternMatchesOnlyAtLineStart() throws InterruptedException {
+    LogMatcher matcher = new LogMatcher(List.of(), List.of("^ready", "go"), List.of(), List.of());
+
+    matcher.accept("go when ready");
+    Assertions.assertFalse(matcher.await(0));
+    Assertions.assertEquals(List.of("^ready"), matcher.getUnseen());
+  }
+
+  @Test
+  void patternWithBackreferenceOrGroupNamesMatches() throws InterruptedException {
+    LogMatcher matcher =
+        new LogMatcher(
+            List.of(),
+            List.of("(a)(b) start", "(\\w)\\1 ready", "(?<p1>up)", "(?<p0>\\d+)/\\k<p0>"),
+            List.of(),
+            List.of());
+
+    matcher.accept("xx ready");
+    Assertions.assertEquals(
+        List.of("(a)(b) start", "(?<p1>up)", "(?<p0>\\d+)/\\k<p0>"), matcher.getUnseen());
+    matcher.accept("ab start, 3/3 up");
+    Assertions.assertTrue(matcher.await(0));
+  }
+
+  @Test
+  void inlineFlagsAndQuotesApplyOnlyToTheirPattern() throws InterruptedException {
+    LogMatcher matcher =
+        new LogMatcher(
+            List.of(), List.of("(?i)ready", "\\Qa|b", "Up", "port \\d+"), List.of(), List.of());
+
+    matcher.accept("READY, UP on port 80, a");
+    Assertions.assertEquals(List.of("\\Qa|b", "Up"), matcher.getUnseen());
+    matcher.accept("a|b Up");
+    Assertions.assertTrue(matcher.await(0));
+  }
+
+  @Test
+  void emptyWithoutConditions() {
+    Assertions.assertTrue(LogMatcher.of(null).isEmpty());
+    Assertions.assertTrue(LogMatcher.of(new WaitConfig()).isEmpty());
+  }
+}
@@ -0,0 +1,74 @@
+package org.honton.chas.podman.maven.plugin.container;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class LogSinkTest {
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @AfterEach
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void writesEveryLineInOrder() {
+    StringWriter writer = new StringWriter();
+    List<String> observed = new ArrayList<>();
+    List<String> reports = new ArrayList<>();
+    LogSink sink = new LogSink(writer, observed::add, reports::add, executor);
+    StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < 10_000; ++i) {
+      String line = "line " + i;
+      sink.accept(line);
+      expected.append(line).append(System.lineSeparator());
+    }
+    sink.close();
+
+    Assertions.assertEquals(10_000, observed.size());
+    Assertions.assertEquals(expected.toString(), writer.toString());
+    Assertions.assertTrue(reports.get(0).startsWith("10000 lines in "), reports.get(0));
+  }
+
+  @Test
+  void blocksWhenWriterFallsBehind() {
+    StringWriter slow =
+        new StringWriter() {
+          @Override
+          public void flush() {
+            try {
+              Thread.sleep(5);
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+          }
+        };
+    List<String> reports = new ArrayList<>();
+    LogSink sink = new LogSink(slow, line -> {}, reports::add, executor, 4);
+    for (int i = 0; i < 200; ++i) {
+      sink.accept("line " + i);
+    }
+    sink.close();
+
+    Assertions.assertEquals(200, slow.toString().split(System.lineSeparator()).length);
+    Assertions.assertFalse(reports.get(0).contains(" 0 stalls"), reports.get(0));
+  }
+
+  @Test
+  void observerSeesLineBeforeWrite() {
+    StringWriter writer = new StringWriter();
+    List<String> observed = new ArrayList<>();
+    LogSink sink = new LogSink(writer, observed::add, r -> {}, command -> {});
+    sink.accept("ready");
+    // writer task never ran, yet observer has seen the line
+    Assertions.assertEquals(List.of("ready"), observed);
+    Assertions.assertEquals("", writer.toString());
+  }
+}
@@ -0,0 +1,57 @@
+package org.honton.chas.podman.maven.plugin.container;
+
+import java.util.List;
+import java.util.Map;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.project.MavenProject;
+import org.honton.chas.podman.maven.plugin.config.ContainerConfig;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class PodCreateCommandLineTest {
+
+  private static ContainerConfig config(String alias, String name, Map<String, String> ports) {
+    ContainerConfig config = new ContainerConfig();
+    config.alias = alias;
+    config.name = name;
+    config.image = "image";
+    config.ports = ports;
+    return config;
+  }
+
+  @Test
+  void podPublishesPortsAndResolvesAliases() throws MojoExecutionException {
+    PodmanContainerRun goal = new PodmanContainerRun();
+    goal.project = new MavenProject();
+    goal.project.getProperties().setProperty("db.port", "5432");
+
+    PodCreateCommandLine cmdLine =
+        new PodCreateCommandLine(
+            goal,
+            "net",
+            List.of(
+                config("db", "net.db", Map.of("db.port", "5432")),
+                config("web", "web", Map.of("http.port", "8080"))));
+
+    Assertions.assertEquals(
+        List.of(
+            "podman",
+            "pod",
+            "create",
+            "--name",
+            "net",
+            "--add-host",
+            "db:127.0.0.1",
+            "--add-host",
+            "net.db:127.0.0.1",
+            "--publish",
+            "5432:5432/tcp",
+            "--add-host",
+            "web:127.0.0.1",
+            "--publish",
+            ":8080/tcp"),
+        cmdLine.getCommand());
+    // only the dynamically assigned port awaits discovery
+    Assertions.assertEquals(Map.of("8080/tcp", "http.port"), cmdLine.getPortToPropertyName());
+  }
+}
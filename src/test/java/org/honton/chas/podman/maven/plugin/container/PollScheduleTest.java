@@ -0,0 +1,29 @@
+package org.honton.chas.podman.maven.plugin.container;
+
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class PollScheduleTest {
+
+  @Test
+  void backsOffToMaximum() {
+    PollSchedule schedule = new PollSchedule(1000, 60_000, new Random(42));
+    long base = PollSchedule.INITIAL_MILLIS;
+    for (int i = 0; i < 10; ++i) {
+      long delay = schedule.nextDelay(0);
+      Assertions.assertTrue(delay >= base / 2 && delay <= base, delay + " not within " + base);
+      base = Math.min(base * 2, 1000);
+    }
+  }
+
+  @Test
+  void boundedByDeadline() {
+    PollSchedule schedule = new PollSchedule(10_000, 1_000, new Random(42));
+    for (int i = 0; i < 8; ++i) {
+      schedule.nextDelay(0);
+    }
+    Assertions.assertEquals(100, schedule.nextDelay(900));
+    Assertions.assertEquals(-1, schedule.nextDelay(1_000));
+  }
+}
@@ -0,0 +1,28 @@
+package org.honton.chas.podman.maven.plugin.container;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class PublishedPortTest {
+
+  @Test
+  void defaultsToTcp() throws MojoExecutionException {
+    PublishedPort port = PublishedPort.parse("8080");
+    Assertions.assertEquals(8080, port.port);
+    Assertions.assertEquals("tcp", port.protocol);
+    Assertions.assertEquals("8080/tcp", port.toString());
+  }
+
+  @Test
+  void explicitProtocol() throws MojoExecutionException {
+    Assertions.assertEquals("53/udp", PublishedPort.parse("53/UDP").toString());
+    Assertions.assertEquals("132/sctp", PublishedPort.parse(" 132/sctp ").toString());
+  }
+
+  @Test
+  void invalid() {
+    Assertions.assertThrows(MojoExecutionException.class, () -> PublishedPort.parse("53/icmp"));
+    Assertions.assertThrows(MojoExecutionException.class, () -> PublishedPort.parse("http"));
+  }
+}
@@ -0,0 +1,79 @@
+package org.honton.chas.podman.maven.plugin.containerfile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ContextStagerTest {
+
+  @TempDir Path tmp;
+
+  @Test
+  void linksThenSkipsUnchanged() throws IOException {
+    Path source = tmp.resolve("a.jar");
+    Files.writeString(source, "a");
+    Path dir = tmp.resolve("context/dependencies");
+
+    ContextStager first = new ContextStager(tmp);
+    first.stage(dir, Map.of("a.jar", source));
+    Assertions.assertTrue(Files.isSameFile(source, dir.resolve("a.jar")));
+    Assertions.assertEquals("1 linked, 0 copied, 0 unchanged, 0 removed", first.toString());
+
+    ContextStager second = new ContextStager(tmp);
+    second.stage(dir, Map.of("a.jar", source));
+    Assertions.assertEquals("0 linked, 0 copied, 1 unchanged, 0 removed", second.toString());
+  }
+
+  @Test
+  void restagesChangedAndRemovesStale() throws IOException {
+    Path source = tmp.resolve("a.jar");
+    Files.writeString(source, "a");
+    Path dir = tmp.resolve("context/classes");
+    Path stale = dir.resolve("com/example/Old.class");
+    Files.createDirectories(stale.getParent());
+    Files.writeString(stale, "old");
+    // a prior copy which differs from the source
+    Path target = dir.resolve("a.jar");
+    Files.writeString(target, "prior");
+    Files.setLastModifiedTime(target, FileTime.fromMillis(0));
+
+    ContextStager stager = new ContextStager(tmp);
+    stager.stage(dir, Map.of("a.jar", source));
+    Assertions.assertEquals("1 linked, 0 copied, 0 unchanged, 1 removed", stager.toString());
+    Assertions.assertEquals("a", Files.readString(target));
+    Assertions.assertFalse(Files.exists(dir.resolve("com")));
+  }
+
+  @Test
+  void copiesFilesOutsideLinkableDirectory() throws IOException {
+    Path repository = tmp.resolve("repository");
+    Files.createDirectories(repository);
+    Path source = repository.resolve("a.jar");
+    Files.writeString(source, "a");
+    Path dir = tmp.resolve("target/context/dependencies");
+
+    ContextStager stager = new ContextStager(tmp.resolve("target"));
+    stager.stage(dir, Map.of("a.jar", source));
+    Assertions.assertFalse(Files.isSameFile(source, dir.resolve("a.jar")));
+    Assertions.assertEquals("a", Files.readString(dir.resolve("a.jar")));
+    Assertions.assertEquals("0 linked, 1 copied, 0 unchanged, 0 removed", stager.toString());
+  }
+
+  @Test
+  void replacesDirectoryWithFile() throws IOException {
+    Path source = tmp.resolve("a.jar");
+    Files.writeString(source, "a");
+    Path dir = tmp.resolve("context/classes");
+    Files.createDirectories(dir.resolve("a.jar/nested"));
+    Files.writeString(dir.resolve("a.jar/nested/Old.class"), "old");
+
+    ContextStager stager = new ContextStager(tmp);
+    stager.stage(dir, Map.of("a.jar", source));
+    Assertions.assertEquals("a", Files.readString(dir.resolve("a.jar")));
+  }
+}
@@ -0,0 +1,82 @@
+package org.honton.chas.podman.maven.plugin.containerfile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.honton.chas.podman.maven.plugin.config.DependencyLayersConfig;
+import org.honton.chas.podman.maven.plugin.config.LayerConfig;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DependencyLayersTest {
+
+  @TempDir Path tmp;
+
+  private Artifact artifact(String groupId, String artifactId, String version) throws IOException {
+    DefaultArtifactHandler handler = new DefaultArtifactHandler("jar");
+    handler.setAddedToClasspath(true);
+    DefaultArtifact artifact =
+        new DefaultArtifact(groupId, artifactId, version, "runtime", "jar", null, handler);
+    Path file = tmp.resolve("repo").resolve(groupId).resolve(artifactId + '-' + version + ".jar");
+    Files.createDirectories(file.getParent());
+    Files.writeString(file, groupId + ':' + artifactId);
+    artifact.setFile(file.toFile());
+    return artifact;
+  }
+
+  @Test
+  void layersOrderedByVolatility() throws IOException {
+    Path classes = tmp.resolve("classes");
+    Files.createDirectories(classes.resolve("com/example"));
+    Files.writeString(classes.resolve("com/example/Main.class"), "code");
+    Files.writeString(classes.resolve("application.properties"), "a=b");
+
+    DependencyLayersConfig config = new DependencyLayersConfig();
+    config.chown = "app";
+    Path contextDir = tmp.resolve("contextDir");
+    List<LayerConfig> layers =
+        new DependencyLayers(contextDir, config, new ContextStager(tmp))
+            .stage(
+                List.of(
+                    artifact("com.example", "lib", "1.0-SNAPSHOT"),
+                    artifact("org.one", "util", "2.0"),
+                    artifact("org.two", "util", "2.0")),
+                classes);
+
+    Assertions.assertEquals(
+        List.of("dependencies/", "snapshot-dependencies/", "resources/", "classes/"),
+        layers.stream().map(l -> l.srcs.get(0)).collect(Collectors.toList()));
+    Assertions.assertEquals(
+        List.of("/app/lib/", "/app/lib/", "/app/classes/", "/app/classes/"),
+        layers.stream().map(l -> l.dest).collect(Collectors.toList()));
+    Assertions.assertEquals("app", layers.get(0).chown);
+
+    Assertions.assertTrue(Files.exists(contextDir.resolve("dependencies/util-2.0.jar")));
+    Assertions.assertTrue(Files.exists(contextDir.resolve("dependencies/org.two-util-2.0.jar")));
+    Assertions.assertTrue(
+        Files.exists(contextDir.resolve("snapshot-dependencies/lib-1.0-SNAPSHOT.jar")));
+    Assertions.assertTrue(Files.exists(contextDir.resolve("resources/application.properties")));
+    Assertions.assertTrue(Files.exists(contextDir.resolve("classes/com/example/Main.class")));
+  }
+
+  @Test
+  void emptyLayersOmittedAndStaleFilesRemoved() throws IOException {
+    Path contextDir = tmp.resolve("contextDir");
+    Path stale = contextDir.resolve("snapshot-dependencies/old-1.0-SNAPSHOT.jar");
+    Files.createDirectories(stale.getParent());
+    Files.writeString(stale, "old");
+
+    List<LayerConfig> layers =
+        new DependencyLayers(contextDir, new DependencyLayersConfig(), new ContextStager(tmp))
+            .stage(List.of(artifact("org.one", "util", "2.0")), tmp.resolve("missing"));
+
+    Assertions.assertEquals(1, layers.size());
+    Assertions.assertFalse(Files.exists(stale));
+  }
+}
@@ -0,0 +1,295 @@
+package org.honton.chas.podman.maven.plugin.libpod;
+
+import com.fasterxml.jackson.jr.ob.JSON;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.Data;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Exercise the client against a stand-in for the libpod service */
+class LibpodClientTest {
+
+  private static final List<String> TRANSPORTS = List.of("socket", "http");
+
+  private HttpServer server;
+  private final Map<String, Object> networks = new ConcurrentHashMap<>();
+  private final Map<String, Map<String, Object>> containers = new ConcurrentHashMap<>();
+  private final Map<String, Map<String, Object>> pods = new ConcurrentHashMap<>();
+
+  private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+    byte[] content = body.getBytes(StandardCharsets.UTF_8);
+    if (status == 204) {
+      exchange.sendResponseHeaders(status, -1);
+    } else {
+      exchange.getResponseHeaders().add("Content-Type", "application/json");
+      exchange.sendResponseHeaders(status, content.length);
+      try (OutputStream os = exchange.getResponseBody()) {
+        os.write(content);
+      }
+    }
+    exchange.close();
+  }
+
+  private static byte[] frame(int stream, String content) {
+    byte[] payload = content.getBytes(StandardCharsets.UTF_8);
+    byte[] frame = new byte[8 + payload.length];
+    frame[0] = (byte) stream;
+    frame[7] = (byte) payload.length;
+    System.arraycopy(payload, 0, frame, 8, payload.length);
+    return frame;
+  }
+
+  @BeforeEach
+  void startServer() throws IOException {
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/v4.0.0/libpod/_ping", e -> respond(e, 200, "OK"));
+    server.createContext(
+        "/v4.0.0/libpod/networks/",
+        e -> {
+          if (e.getRequestMethod().equals("POST")) {
+            Map<String, Object> spec = JSON.std.mapFrom(e.getRequestBody());
+            boolean created = networks.putIfAbsent((String) spec.get("name"), spec) == null;
+            respond(e, created ? 200 : 409, "{\"message\":\"network already exists\"}");
+          } else {
+            String name = e.getRequestURI().getPath().replaceFirst(".*/", "");
+            boolean removed = networks.remove(name) != null;
+            respond(e, removed ? 200 : 404, "[{\"Name\":\"" + name + "\"}]");
+          }
+        });
+    server.createContext("/v4.0.0/libpod/images/pull", e -> respond(e, 200, "{\"id\":\"abc\"}"));
+    server.createContext(
+        "/v4.0.0/libpod/images/",
+        e -> {
+          String path = e.getRequestURI().getPath();
+          if (path.endsWith("/exists")) {
+            respond(e, path.contains("nginx:latest") ? 204 : 404, "{\"message\":\"not known\"}");
+          } else {
+            respond(e, 200, "{\"Id\":\"abc\",\"RepoTags\":[\"nginx:latest\"]}");
+          }
+        });
+    server.createContext(
+        "/v4.0.0/libpod/containers/",
+        e -> {
+          String path =
+              e.getRequestURI().getPath().substring("/v4.0.0/libpod/containers/".length());
+          if (path.equals("json")) {
+            String filters =
+                URLDecoder.decode(
+                    e.getRequestURI().getRawQuery().replaceFirst(".*filters=", ""),
+                    StandardCharsets.UTF_8);
+            respond(
+                e,
+                200,
+                filters.equals("{\"name\":[\"^net\\\\.web$\"]}")
+                    ? "[{\"Id\":\"c0\",\"Names\":[\"net.web\"],\"State\":\"running\"}]"
+                    : "[]");
+          } else if (path.equals("create")) {
+            Map<String, Object> spec = JSON.std.mapFrom(e.getRequestBody());
+            containers.put("c1", spec);
+            respond(e, 201, "{\"Id\":\"c1\",\"Warnings\":[]}");
+          } else if (path.equals("c1/start")) {
+            respond(e, 204, "");
+          } else if (path.equals("c1/json")) {
+            respond(
+                e,
+                200,
+                "{\"Id\":\"c1\",\"HostConfig\":{\"NetworkMode\":\"bridge\",\"PortBindings\":"
+                    + "{\"8080/tcp\":[{\"HostIp\":\"\",\"HostPort\":\"40123\"}]}}}");
+          } else if (path.equals("c1/logs")) {
+            // chunked response of multiplexed frames
+            e.sendResponseHeaders(200, 0);
+            try (OutputStream os = e.getResponseBody()) {
+              os.write(frame(1, "first line\n"));
+              os.flush();
+              os.write(frame(2, "partial "));
+              os.write(frame(2, "second line\n"));
+              os.write(frame(1, "last"));
+            }
+            e.close();
+          } else if (path.equals("c1") && e.getRequestMethod().equals("DELETE")) {
+            containers.remove("c1");
+            respond(e, 200, "[{\"Id\":\"c1\",\"RawInput\":\"" + e.getRequestURI() + "\"}]");
+          } else {
+            respond(
+                e, 404, "{\"cause\":\"no such container\",\"message\":\"no such " + path + "\"}");
+          }
+        });
+    server.createContext(
+        "/v4.0.0/libpod/pods/",
+        e -> {
+          String path = e.getRequestURI().getPath().substring("/v4.0.0/libpod/pods/".length());
+          if (path.equals("create")) {
+            Map<String, Object> spec = JSON.std.mapFrom(e.getRequestBody());
+            pods.put((String) spec.get("name"), spec);
+            respond(e, 201, "{\"Id\":\"p1\"}");
+          } else if (path.equals("net/start") || path.equals("net/stop")) {
+            respond(e, 200, "{\"Id\":\"p1\",\"Errs\":[]}");
+          } else if (path.equals("net/json")) {
+            respond(e, 200, "{\"Id\":\"p1\",\"InfraContainerID\":\"i1\"}");
+          } else if (path.equals("net") && e.getRequestMethod().equals("DELETE")) {
+            pods.remove("net");
+            respond(e, 200, "{\"Id\":\"p1\",\"RemovedCtrs\":{}}");
+          } else {
+            respond(e, 404, "{\"cause\":\"no such pod\",\"message\":\"no such " + path + "\"}");
+          }
+        });
+    server.start();
+  }
+
+  @AfterEach
+  void stopServer() {
+    server.stop(0);
+  }
+
+  private LibpodClient client(String transport, List<String> requests) {
+    InetSocketAddress address = server.getAddress();
+    LibpodTransport libpodTransport =
+        transport.equals("socket")
+            ? new SocketTransport(address)
+            : new HttpClientTransport(
+                URI.create("http://" + address.getHostString() + ':' + address.getPort()));
+    return new LibpodClient(libpodTransport, requests::add);
+  }
+
+  @Test
+  void networkLifecycle() throws IOException {
+    for (String transport : TRANSPORTS) {
+      networkLifecycle(transport);
+    }
+  }
+
+  private void networkLifecycle(String transport) throws IOException {
+    List<String> requests = new ArrayList<>();
+    LibpodClient client = client(transport, requests);
+    client.ping();
+    Assertions.assertTrue(client.createNetwork("net", "bridge"));
+    Assertions.assertFalse(client.createNetwork("net", null));
+    Assertions.assertEquals("bridge", ((Map<?, ?>) networks.get("net")).get("driver"));
+    client.removeNetwork("net");
+    Assertions.assertTrue(networks.isEmpty());
+    IOException missing =
+        Assertions.assertThrows(IOException.class, () -> client.removeNetwork("net"));
+    Assertions.assertTrue(missing.getMessage().contains("404"));
+    Assertions.assertEquals("POST /networks/create", requests.get(1));
+  }
+
+  @Test
+  void containerLifecycle() throws IOException {
+    for (String transport : TRANSPORTS) {
+      containerLifecycle(transport);
+    }
+  }
+
+  private void containerLifecycle(String transport) throws IOException {
+    LibpodClient client = client(transport, new ArrayList<>());
+    Assertions.assertFalse(client.imageExists("busybox:latest"));
+    client.pullImage("docker.io/library/nginx:latest");
+    Assertions.assertTrue(client.imageExists("nginx:latest"));
+    Assertions.assertEquals("abc", client.inspectImage("nginx:latest", Container.class).Id);
+    List<Container> listed = client.listContainers("^net\\.web$", Container.class);
+    Assertions.assertEquals("c0", listed.get(0).Id);
+    Assertions.assertTrue(client.listContainers("^other$", Container.class).isEmpty());
+    String id = client.createContainer(Map.of("name", "net.web", "image", "nginx"));
+    Assertions.assertEquals("c1", id);
+    Assertions.assertEquals("net.web", containers.get("c1").get("name"));
+    client.startContainer(id);
+
+    Inspect inspect = client.inspectContainer(id, Inspect.class);
+    Assertions.assertEquals(
+        "40123", inspect.HostConfig.PortBindings.get("8080/tcp").get(0).HostPort);
+
+    List<String> lines = new ArrayList<>();
+    client.followLogs(id, false, lines::add);
+    Assertions.assertEquals(List.of("first line", "partial second line", "last"), lines);
+
+    client.removeContainer(id, 0);
+    Assertions.assertTrue(containers.isEmpty());
+    IOException missing =
+        Assertions.assertThrows(IOException.class, () -> client.startContainer("c2"));
+    Assertions.assertTrue(missing.getMessage().contains("no such c2/start"));
+  }
+
+  @Test
+  void podLifecycle() throws IOException {
+    for (String transport : TRANSPORTS) {
+      podLifecycle(transport);
+    }
+  }
+
+  private void podLifecycle(String transport) throws IOException {
+    List<String> requests = new ArrayList<>();
+    LibpodClient client = client(transport, requests);
+    Assertions.assertEquals(
+        "p1", client.createPod(Map.of("name", "net", "hostadd", List.of("db:127.0.0.1"))));
+    Assertions.assertEquals(List.of("db:127.0.0.1"), pods.get("net").get("hostadd"));
+    client.startPod("net");
+    Assertions.assertEquals("i1", client.inspectPod("net", Pod.class).InfraContainerID);
+    client.removePod("net");
+    Assertions.assertTrue(pods.isEmpty());
+    Assertions.assertEquals(
+        List.of(
+            "POST /pods/create",
+            "POST /pods/net/start",
+            "GET /pods/net/json",
+            "DELETE /pods/net?force=true"),
+        requests);
+  }
+
+  @Test
+  void plainLogs() throws IOException {
+    server.createContext(
+        "/v4.0.0/libpod/containers/tty/logs",
+        e -> {
+          e.sendResponseHeaders(200, 0);
+          try (OutputStream os = e.getResponseBody()) {
+            os.write("tty line one\r\ntty line two\n".getBytes(StandardCharsets.UTF_8));
+          }
+          e.close();
+        });
+    for (String transport : TRANSPORTS) {
+      List<String> lines = new ArrayList<>();
+      client(transport, new ArrayList<>()).followLogs("tty", true, lines::add);
+      Assertions.assertEquals(List.of("tty line one", "tty line two"), lines);
+    }
+  }
+
+  @Data
+  static class Container {
+    public String Id;
+  }
+
+  @Data
+  static class Pod {
+    public String InfraContainerID;
+  }
+
+  @Data
+  static class Inspect {
+    public HostConfig HostConfig;
+  }
+
+  @Data
+  static class HostConfig {
+    public Map<String, List<PortBinding>> PortBindings;
+  }
+
+  @Data
+  static class PortBinding {
+    public String HostIp;
+    public String HostPort;
+  }
+}
@@ -0,0 +1,46 @@
+package org.honton.chas.podman.maven.plugin.push;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class PodmanPushTest {
+
+  @Test
+  void withTag() {
+    Assertions.assertEquals(
+        "registry:5000/repo/app:latest",
+        PodmanPush.withTag("registry:5000/repo/app:1.0", "latest"));
+    Assertions.assertEquals(
+        "registry:5000/repo/app:abc123", PodmanPush.withTag("registry:5000/repo/app", "abc123"));
+    Assertions.assertEquals(
+        "registry:5000/repo/app:latest",
+        PodmanPush.withTag("registry:5000/repo/app@sha256:1b2c3d", "latest"));
+    Assertions.assertEquals(
+        "registry:5000/repo/app:latest",
+        PodmanPush.withTag("registry:5000/repo/app:1.0@sha256:1b2c3d", "latest"));
+  }
+
+  @Test
+  void imageDigest() {
+    Assertions.assertEquals("sha256:1b2c3d", PodmanPush.imageDigest("1b2c3d"));
+    Assertions.assertEquals("sha256:1b2c3d", PodmanPush.imageDigest("sha256:1b2c3d"));
+  }
+
+  @Test
+  void progressCountsUploadedBlobs() {
+    List<String> lines = new ArrayList<>();
+    PushProgress progress = new PushProgress(lines::add);
+    progress.accept("Getting image source signatures");
+    progress.accept("Copying blob sha256:5f70bf18a086 skipped: already exists");
+    progress.accept("Copying blob 9ec1b2ff8a1c");
+    progress.accept("Copying blob 9ec1b2ff8a1c done");
+    progress.accept("Copying config sha256:1b2c3d done");
+    progress.accept("Writing manifest to image destination");
+
+    Assertions.assertEquals(2, progress.getBlobs());
+    Assertions.assertEquals(1, progress.getUploaded());
+    Assertions.assertEquals(6, lines.size());
+  }
+}
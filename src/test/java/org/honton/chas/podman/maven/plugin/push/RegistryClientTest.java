@@ -0,0 +1,165 @@
+package org.honton.chas.podman.maven.plugin.push;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Exercise the client against a stand-in for a token authenticated registry */
+class RegistryClientTest {
+
+  private static final String CONFIG = "sha256:" + "ab".repeat(32);
+  private static final String CREDENTIALS = "dXNlcjpwYXNz";
+
+  private HttpServer server;
+  private String registry;
+  private final List<String> tokenQueries = new CopyOnWriteArrayList<>();
+  private final List<String> puts = new CopyOnWriteArrayList<>();
+
+  private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+    byte[] content = body.getBytes(StandardCharsets.UTF_8);
+    exchange.sendResponseHeaders(status, content.length > 0 ? content.length : -1);
+    try (OutputStream os = exchange.getResponseBody()) {
+      os.write(content);
+    }
+    exchange.close();
+  }
+
+  @BeforeEach
+  void startServer() throws IOException {
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    registry = "localhost:" + server.getAddress().getPort();
+    server.createContext(
+        "/token",
+        e -> {
+          tokenQueries.add(e.getRequestURI().getRawQuery());
+          boolean authorized =
+              ("Basic " + CREDENTIALS).equals(e.getRequestHeaders().getFirst("Authorization"));
+          respond(e, authorized ? 200 : 401, authorized ? "{\"token\":\"secret\"}" : "");
+        });
+    server.createContext(
+        "/v2/",
+        e -> {
+          if (!"Bearer secret".equals(e.getRequestHeaders().getFirst("Authorization"))) {
+            e.getResponseHeaders()
+                .add(
+                    "WWW-Authenticate",
+                    "Bearer realm=\"http://"
+                        + registry
+                        + "/token\",service=\"stand-in\",scope=\"repository:team/app:pull\"");
+            respond(e, 401, "");
+          } else if (e.getRequestURI().getPath().equals("/v2/team/app/manifests/latest")) {
+            Assertions.assertEquals("PUT", e.getRequestMethod());
+            puts.add(
+                e.getRequestHeaders().getFirst("Content-Type")
+                    + ' '
+                    + new String(e.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            respond(e, 201, "");
+          } else if (e.getRequestURI().getPath().equals("/v2/team/app/manifests/1.0")) {
+            Assertions.assertEquals("GET", e.getRequestMethod());
+            e.getResponseHeaders()
+                .add("Content-Type", "application/vnd.oci.image.manifest.v1+json");
+            respond(
+                e,
+                200,
+                "{\"schemaVersion\":2,\"mediaType\":\"application/vnd.oci.image.manifest.v1+json\","
+                    + "\"config\":{\"mediaType\":\"application/vnd.oci.image.config.v1+json\","
+                    + "\"digest\":\""
+                    + CONFIG
+                    + "\",\"size\":1470},\"layers\":[]}");
+          } else if (e.getRequestURI().getPath().equals("/v2/team/app/manifests/multi")) {
+            respond(
+                e,
+                200,
+                "{\"schemaVersion\":2,\"mediaType\":\"application/vnd.oci.image.index.v1+json\","
+                    + "\"manifests\":[]}");
+          } else {
+            respond(e, 404, "");
+          }
+        });
+    server.start();
+  }
+
+  @AfterEach
+  void stopServer() {
+    server.stop(0);
+  }
+
+  @Test
+  void configDigestWithBearerToken() throws IOException, InterruptedException {
+    RegistryClient client = new RegistryClient(Map.of(registry, CREDENTIALS));
+    Assertions.assertEquals(CONFIG, client.configDigest(registry + "/team/app:1.0"));
+    Assertions.assertEquals(
+        List.of("service=stand-in&scope=repository%3Ateam%2Fapp%3Apull"), tokenQueries);
+  }
+
+  @Test
+  void missingManifest() throws IOException, InterruptedException {
+    RegistryClient client = new RegistryClient(Map.of(registry, CREDENTIALS));
+    Assertions.assertNull(client.configDigest(registry + "/team/app:2.0"));
+  }
+
+  @Test
+  void manifestListHasNoConfig() throws IOException, InterruptedException {
+    RegistryClient client = new RegistryClient(Map.of(registry, CREDENTIALS));
+    Assertions.assertNull(client.configDigest(registry + "/team/app:multi"));
+  }
+
+  @Test
+  void withoutCredentials() throws IOException, InterruptedException {
+    Assertions.assertNull(new RegistryClient(Map.of()).configDigest(registry + "/team/app:1.0"));
+  }
+
+  @Test
+  void copyManifestToTag() throws IOException, InterruptedException {
+    RegistryClient client = new RegistryClient(Map.of(registry, CREDENTIALS));
+    Assertions.assertTrue(
+        client.copyManifest(registry + "/team/app:1.0", registry + "/team/app:latest"));
+    Assertions.assertEquals(1, puts.size());
+    Assertions.assertTrue(
+        puts.get(0).startsWith("application/vnd.oci.image.manifest.v1+json {\"schemaVersion\""));
+  }
+
+  @Test
+  void copyManifestOnlyWithinRepository() throws IOException, InterruptedException {
+    RegistryClient client = new RegistryClient(Map.of(registry, CREDENTIALS));
+    Assertions.assertFalse(
+        client.copyManifest(registry + "/team/app:2.0", registry + "/team/app:latest"));
+    Assertions.assertFalse(
+        client.copyManifest(registry + "/team/app:1.0", registry + "/team/other:latest"));
+    Assertions.assertEquals(List.of(), puts);
+  }
+
+  @Test
+  void parseReference() {
+    RegistryClient.Reference hub = RegistryClient.Reference.parse("ubuntu");
+    Assertions.assertEquals("docker.io", hub.registry);
+    Assertions.assertEquals("library/ubuntu", hub.repository);
+    Assertions.assertEquals("latest", hub.tag);
+    Assertions.assertEquals("https://registry-1.docker.io", hub.base());
+
+    RegistryClient.Reference local = RegistryClient.Reference.parse("localhost:5000/team/app:1.0");
+    Assertions.assertEquals("localhost:5000", local.registry);
+    Assertions.assertEquals("team/app", local.repository);
+    Assertions.assertEquals("1.0", local.tag);
+    Assertions.assertEquals("http://localhost:5000", local.base());
+
+    Assertions.assertEquals(
+        "https://quay.io", RegistryClient.Reference.parse("quay.io/team/app").base());
+
+    RegistryClient.Reference digest =
+        RegistryClient.Reference.parse("localhost:5000/team/app:1.0@sha256:abc");
+    Assertions.assertEquals("team/app", digest.repository);
+    Assertions.assertEquals("sha256:abc", digest.tag);
+  }
+}
@@ -0,0 +1,92 @@
+package org.honton.chas.podman.maven.plugin.volume;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DirectoryTarTest {
+
+  @TempDir Path root;
+
+  private Map<String, String> read(ByteArrayOutputStream bytes) throws IOException {
+    Map<String, String> entries = new LinkedHashMap<>();
+    try (TarArchiveInputStream tar =
+        new TarArchiveInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      for (TarArchiveEntry entry; (entry = tar.getNextTarEntry()) != null; ) {
+        entries.put(
+            entry.getName(),
+            entry.isDirectory()
+                ? "/"
+                : entry.isSymbolicLink()
+                    ? "-> " + entry.getLinkName()
+                    : new String(tar.readAllBytes(), StandardCharsets.UTF_8));
+      }
+    }
+    return entries;
+  }
+
+  @Test
+  void writesSelectedFilesWithParents() throws IOException {
+    Files.createDirectories(root.resolve("a/b"));
+    Files.createDirectories(root.resolve("x"));
+    Files.writeString(root.resolve("a/b/changed.txt"), "new");
+    Files.writeString(root.resolve("a/same.txt"), "old");
+    Files.writeString(root.resolve("x/same.txt"), "old");
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DirectoryTar.write(root, Set.of("a/b/changed.txt")::contains, bytes);
+
+    Assertions.assertEquals(
+        List.of("a/", "a/b/", "a/b/changed.txt"), List.copyOf(read(bytes).keySet()));
+  }
+
+  @Test
+  void writesTreeRelativeToRoot() throws IOException {
+    Files.createDirectories(root.resolve("data/nested"));
+    Files.writeString(root.resolve("data/nested/a.sql"), "select 1;");
+    Files.writeString(root.resolve("README"), "no extension");
+    String longName = "d".repeat(120) + "/file.txt";
+    Files.createDirectories(root.resolve(longName).getParent());
+    Files.writeString(root.resolve(longName), "long");
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DirectoryTar.write(root, name -> true, bytes);
+
+    Map<String, String> entries = read(bytes);
+    Assertions.assertEquals("no extension", entries.get("README"));
+    Assertions.assertEquals("/", entries.get("data/"));
+    Assertions.assertEquals("select 1;", entries.get("data/nested/a.sql"));
+    Assertions.assertEquals("long", entries.get(longName));
+  }
+
+  @Test
+  void writesSymbolicLinksAsLinks() throws IOException {
+    Files.createDirectories(root.resolve("data"));
+    Files.writeString(root.resolve("data/a.sql"), "select 1;");
+    Files.createSymbolicLink(root.resolve("data/link.sql"), Path.of("a.sql"));
+    Files.createSymbolicLink(root.resolve("data/dangling.sql"), Path.of("absent.sql"));
+    Files.createSymbolicLink(root.resolve("tree"), Path.of("data"));
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DirectoryTar.write(root, name -> true, bytes);
+
+    Map<String, String> entries = read(bytes);
+    Assertions.assertEquals("select 1;", entries.get("data/a.sql"));
+    Assertions.assertEquals("-> a.sql", entries.get("data/link.sql"));
+    Assertions.assertEquals("-> absent.sql", entries.get("data/dangling.sql"));
+    Assertions.assertEquals("-> data", entries.get("tree"));
+    Assertions.assertEquals(5, entries.size());
+  }
+}
@@ -0,0 +1,22 @@
+package org.honton.chas.podman.maven.plugin.volume;
+
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class PodmanImportVolumeTest {
+
+  @Test
+  void includesFilesWithExtensionUnderArtifactId() {
+    PodmanImportVolume goal = new PodmanImportVolume();
+    goal.project = new MavenProject();
+    goal.project.setArtifactId("db");
+
+    Assertions.assertTrue(goal.included("db/a.sql"));
+    Assertions.assertTrue(goal.included("db/nested/b.tar.gz"));
+    Assertions.assertFalse(goal.included("db/README"));
+    Assertions.assertFalse(goal.included("db.d/README"));
+    Assertions.assertFalse(goal.included("other/a.sql"));
+    Assertions.assertFalse(goal.included("a.sql"));
+  }
+}
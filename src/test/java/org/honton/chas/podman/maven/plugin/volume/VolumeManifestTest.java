@@ -0,0 +1,61 @@
+package org.honton.chas.podman.maven.plugin.volume;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Set;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class VolumeManifestTest {
+
+  @TempDir Path tmp;
+
+  @Test
+  void detectsChangedAndRemovedFiles() throws IOException {
+    Path src = tmp.resolve("src");
+    Files.createDirectories(src.resolve("data"));
+    Files.writeString(src.resolve("data/a.sql"), "a");
+    Files.writeString(src.resolve("data/b.sql"), "b");
+    Files.writeString(src.resolve("c.sql"), "c");
+
+    VolumeManifest first = VolumeManifest.scan(src, name -> true, null);
+    first.volumeCreated = "2024-01-01 00:00:00 +0000 UTC";
+    Path state = tmp.resolve("state/volume.manifest");
+    first.write(state);
+    VolumeManifest prior = VolumeManifest.read(state);
+    Assertions.assertEquals(first.volumeCreated, prior.volumeCreated);
+    Assertions.assertEquals(first.entries, prior.entries);
+
+    Assertions.assertEquals(
+        Set.of(), VolumeManifest.scan(src, name -> true, prior).changedSince(prior));
+
+    Files.writeString(src.resolve("data/a.sql"), "changed");
+    Files.writeString(src.resolve("data/d.sql"), "d");
+    Files.delete(src.resolve("c.sql"));
+    // same size and content with a new modification time is unchanged
+    Files.setLastModifiedTime(src.resolve("data/b.sql"), FileTime.fromMillis(0));
+
+    VolumeManifest current = VolumeManifest.scan(src, name -> true, prior);
+    Assertions.assertEquals(Set.of("data/a.sql", "data/d.sql"), current.changedSince(prior));
+    Assertions.assertEquals(Set.of("c.sql"), current.removedSince(prior));
+  }
+
+  @Test
+  void scansOnlyIncludedFiles() throws IOException {
+    Path src = tmp.resolve("src");
+    Files.createDirectories(src.resolve("data"));
+    Files.writeString(src.resolve("data/a.sql"), "a");
+    Files.writeString(src.resolve("b.sql"), "b");
+
+    VolumeManifest manifest = VolumeManifest.scan(src, name -> name.startsWith("data/"), null);
+    Assertions.assertEquals(Set.of("data/a.sql"), manifest.entries.keySet());
+  }
+
+  @Test
+  void missingManifest() throws IOException {
+    Assertions.assertNull(VolumeManifest.read(tmp.resolve("absent")));
+  }
+}